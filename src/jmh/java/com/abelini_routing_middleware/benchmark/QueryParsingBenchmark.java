@@ -0,0 +1,52 @@
+package com.abelini_routing_middleware.benchmark;
+
+import com.abelini_routing_middleware.routing.UrlTokenizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tokenizing the resolver does on every miss, over all of {@link UrlCorpus#REQUESTS}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryParsingBenchmark {
+
+    @Benchmark
+    public void pathSegments(Blackhole blackhole) {
+        for (String[] request : UrlCorpus.REQUESTS) {
+            blackhole.consume(UrlTokenizer.path(request[0]));
+        }
+    }
+
+    @Benchmark
+    public void queryParameters(Blackhole blackhole) {
+        for (String[] request : UrlCorpus.REQUESTS) {
+            UrlTokenizer.forEachParam(request[1], (name, value) -> {
+                blackhole.consume(name);
+                blackhole.consume(value);
+            });
+        }
+    }
+
+    @Benchmark
+    public void filterValues(Blackhole blackhole) {
+        for (String[] request : UrlCorpus.REQUESTS) {
+            UrlTokenizer.forEachParam(request[1], (name, value) -> {
+                if ("filter_param".equals(name)) {
+                    UrlTokenizer.forEachToken(value, '_', blackhole::consume);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public String mergeValues() {
+        return UrlTokenizer.mergeValues(UrlTokenizer.mergeValues("12,21", "yellow,white,12"), "lbg");
+    }
+}
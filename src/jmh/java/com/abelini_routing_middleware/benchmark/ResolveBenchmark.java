@@ -0,0 +1,96 @@
+package com.abelini_routing_middleware.benchmark;
+
+import com.abelini_routing_middleware.CommonService;
+import com.abelini_routing_middleware.routing.RoutingRequest;
+import com.abelini_routing_middleware.routing.RoutingResolution;
+import com.abelini_routing_middleware.routing.SeoRoutingResolver;
+import com.abelini_routing_middleware.seo.SeoKeywordCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.AopTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end resolution of {@link UrlCorpus#REQUESTS}, one request per invocation:
+ * <ul>
+ *     <li>{@code cached}: {@link CommonService#resolveSeoToQuery} with {@code seoToQuery} warm, the
+ *     steady state for popular URLs</li>
+ *     <li>{@code warmTokens}: a {@code seoToQuery} miss whose keywords are all in the token cache</li>
+ *     <li>{@code coldTokens}: a miss that goes to the ERP stub for every lookup</li>
+ * </ul>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ResolveBenchmark {
+    private RoutingContext context;
+    private CommonService commonService;
+    private SeoRoutingResolver resolver;
+    private SeoKeywordCache seoKeywordCache;
+    private RoutingRequest[] routingRequests;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+        private MockHttpServletRequest[] requests;
+
+        @Setup
+        public void setUp() {
+            requests = new MockHttpServletRequest[UrlCorpus.REQUESTS.length];
+            for (int i = 0; i < requests.length; i++) {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", UrlCorpus.REQUESTS[i][0]);
+                request.setServerName("www.abelini.com");
+                request.setQueryString(UrlCorpus.REQUESTS[i][1]);
+                requests[i] = request;
+            }
+        }
+
+        int next() {
+            int index = next;
+            next = index + 1 == requests.length ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new RoutingContext();
+        commonService = context.bean(CommonService.class);
+        resolver = AopTestUtils.getUltimateTargetObject(context.bean(SeoRoutingResolver.class));
+        seoKeywordCache = context.bean(SeoKeywordCache.class);
+        routingRequests = new RoutingRequest[UrlCorpus.REQUESTS.length];
+        for (int i = 0; i < routingRequests.length; i++) {
+            String path = UrlCorpus.REQUESTS[i][0];
+            routingRequests[i] = new RoutingRequest(path, "https://www.abelini.com" + path, UrlCorpus.REQUESTS[i][1]);
+            // fills the token cache for warmTokens
+            resolver.resolve(routingRequests[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String cached(Cursor cursor) {
+        return commonService.resolveSeoToQuery(cursor.requests[cursor.next()], new MockHttpServletResponse());
+    }
+
+    @Benchmark
+    public RoutingResolution warmTokens(Cursor cursor) {
+        return resolver.resolve(routingRequests[cursor.next()]);
+    }
+
+    @Benchmark
+    public RoutingResolution coldTokens(Cursor cursor) {
+        seoKeywordCache.getNativeCache().invalidateAll();
+        return resolver.resolve(routingRequests[cursor.next()]);
+    }
+}
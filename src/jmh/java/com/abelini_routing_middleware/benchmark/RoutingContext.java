@@ -0,0 +1,97 @@
+package com.abelini_routing_middleware.benchmark;
+
+import com.abelini_routing_middleware.CommonService;
+import com.abelini_routing_middleware.cache.CacheEntryTtl;
+import com.abelini_routing_middleware.cache.CacheIndex;
+import com.abelini_routing_middleware.cache.HotKeyTracker;
+import com.abelini_routing_middleware.redirect.RedirectService;
+import com.abelini_routing_middleware.routing.CacheKeyBuilder;
+import com.abelini_routing_middleware.routing.CacheWarmer;
+import com.abelini_routing_middleware.routing.RefreshAhead;
+import com.abelini_routing_middleware.routing.RouteTableLoader;
+import com.abelini_routing_middleware.routing.SeoRoutingResolver;
+import com.abelini_routing_middleware.seo.ErpCircuitBreaker;
+import com.abelini_routing_middleware.seo.SeoDataClient;
+import com.abelini_routing_middleware.seo.SeoDataService;
+import com.abelini_routing_middleware.seo.SeoKeywordCache;
+import com.abelini_routing_middleware.seo.SeoKeywordIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The resolve path wired as in the application (application.properties, routes.json,
+ * redirects.csv, the {@code @Cacheable} proxy), with {@code seoToQuery} in an in-memory
+ * cache instead of Redis, the keyword and purge indexes off and the ERP replaced by {@link SeoDataStub}.
+ */
+public final class RoutingContext implements AutoCloseable {
+    private final SeoDataStub stub;
+    private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+
+    public RoutingContext() throws IOException {
+        stub = new SeoDataStub();
+        context.getEnvironment().getPropertySources().addFirst(new ResourcePropertySource("classpath:application.properties"));
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "seo.data.api.url", stub.url(),
+                "seo.index.enabled", "false",
+                "cache.index.enabled", "false",
+                "spring.threads.virtual.enabled", "true")));
+        context.register(Beans.class, ErpCircuitBreaker.class, SeoDataClient.class, SeoKeywordIndex.class, SeoKeywordCache.class,
+                SeoDataService.class, RouteTableLoader.class, CacheIndex.class, SeoRoutingResolver.class, RedirectService.class,
+                HotKeyTracker.class, CacheWarmer.class, CacheKeyBuilder.class, RefreshAhead.class, CommonService.class);
+        context.refresh();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        stub.close();
+    }
+
+    // registered explicitly rather than as @Configuration, so the application's component scan never picks it up
+    @EnableCaching
+    static class Beans {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        // never connected: hot keys are only persisted by the scheduler, which is not enabled here
+        @Bean
+        StringRedisTemplate stringRedisTemplate() {
+            return new StringRedisTemplate(new LettuceConnectionFactory());
+        }
+
+        @Bean
+        CacheEntryTtl cacheEntryTtl() {
+            return new CacheEntryTtl(Duration.ofDays(7), Duration.ofMinutes(5), Duration.ofDays(1));
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("seoToQuery");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.abelini_routing_middleware.benchmark;
+
+import com.abelini_routing_middleware.dto.SeoDataRequest;
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process stand-in for the ERP {@code seo_data.php} endpoint, answering from
+ * {@link UrlCorpus} over real HTTP so the client, JSON and batching costs are measured.
+ */
+public final class SeoDataStub implements AutoCloseable {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, SeoDataResponseDTO> keywords = UrlCorpus.keywords();
+    private final Map<String, SeoDataResponseDTO> values = UrlCorpus.values();
+    private final HttpServer server;
+
+    public SeoDataStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/seo_data.php", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/seo_data.php";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        SeoDataRequest request;
+        try (InputStream in = exchange.getRequestBody()) {
+            request = objectMapper.readValue(in, SeoDataRequest.class);
+        }
+        Map<String, SeoDataResponseDTO> table = "value".equals(request.getType()) ? values : keywords;
+        List<SeoDataResponseDTO> rows = new ArrayList<>();
+        for (String part : request.getPathParts()) {
+            SeoDataResponseDTO row = table.get(part);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        byte[] body = objectMapper.writeValueAsBytes(rows);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
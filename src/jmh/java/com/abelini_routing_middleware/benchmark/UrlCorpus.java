@@ -0,0 +1,101 @@
+package com.abelini_routing_middleware.benchmark;
+
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request mix and ERP keyword table shared by the benchmarks. The URLs follow live traffic:
+ * mostly category pages with filters and stone-type suffixes, then products, blog, search,
+ * account pages and the odd 404 probe.
+ */
+public final class UrlCorpus {
+
+    /**
+     * Path and raw query string (or {@code null}) of each request.
+     */
+    public static final String[][] REQUESTS = {
+            {"/engagement-rings", null},
+            {"/engagement-rings/classic-solitaire", "filter_param=1.6_3.177_4.50"},
+            {"/engagement-rings/classic-solitaire/yellow-gold", "filter_param=1.6_3.177_4.50&sort=p.price&order=ASC&page=2"},
+            {"/engagement-rings/halo/round-lbg/platinum", "filter_param=2.10_3.177&metal=yellow,white"},
+            {"/engagement-rings/classic-solitaire/oval-msnt", "stone_type=lbg&sort=p.sold&order=DESC"},
+            {"/wedding-rings/platinum", "filter_param=4.50&limit=48"},
+            {"/wedding-rings", "sort=p.sort_order&order=ASC"},
+            {"/product/4-claw-round-solitaire-rine3044", null},
+            {"/product/halo-oval-diamond-ring-rine5120", "metal=platinum"},
+            {"/blog/how-to-choose-a-diamond", null},
+            {"/search/halo-ring", null},
+            {"/search/oval-engagement-ring", "page=3"},
+            {"/account/order-info/10045", null},
+            {"/engagement-rings/unknown-style", null},
+            {"/wp-admin/setup-config.php", null},
+            {"/sitemap/engagement-rings", null},
+    };
+
+    /**
+     * Internal targets as the resolver builds them, for the {@code /routing-value} response.
+     */
+    public static final String[] TARGETS = {
+            "https://www.abelini.com/internal/engagement-rings/classic-solitaire/diamonds.php?fullQuery=ZmlsdGVyX3BhcmFtPTEuNl8zLjE3N180LjUw"
+                    + "&filter_param=1.6_3.177_4.50&category_id=12,21&filter_carat=1.6&filter_shape=3.177"
+                    + "&hitUrlKeyword=%2Fengagement-rings%2Fclassic-solitaire",
+            "https://www.abelini.com/internal/engagement-rings/classic-solitaire/diamonds.php?category_id=12,22&shape_id=1&metal_id=5"
+                    + "&stone_type=lbg&metal=yellow,white&hitUrlKeyword=%2Fengagement-rings%2Fhalo%2Fround-lbg%2Fplatinum"
+                    + "&hitUrlQuery=ZmlsdGVyX3BhcmFtPTIuMTBfMy4xNzcmbWV0YWw9eWVsbG93LHdoaXRl",
+            "https://www.abelini.com/internal/product/product.php?product_id=8812034&hitUrlKeyword=%2Fproduct%2F4-claw-round-solitaire-rine3044",
+            "https://www.abelini.com/internal/search.php?q=halo-ring&hitUrlKeyword=%2Fsearch%2Fhalo-ring",
+    };
+
+    private static final Object[][] KEYWORDS = {
+            {"engagement-rings", "category_id", "12"},
+            {"wedding-rings", "category_id", "14"},
+            {"classic-solitaire", "category_id", "21"},
+            {"halo", "category_id", "22"},
+            {"round", "shape_id", "1"},
+            {"oval", "shape_id", "2"},
+            {"yellow-gold", "metal_id", "3"},
+            {"platinum", "metal_id", "5"},
+            {"4-claw-round-solitaire-rine3044", "product_id", "8812034"},
+            {"halo-oval-diamond-ring-rine5120", "product_id", "8812977"},
+            {"how-to-choose-a-diamond", "article_id", "5521"},
+            {"order-info", "order_id", ""},
+            {"10045", "order_id", "10045"},
+    };
+
+    private static final Object[][] VALUES = {
+            {"1.6", "filter_carat", "1.6"},
+            {"2.10", "filter_carat", "2.10"},
+            {"3.177", "filter_shape", "3.177"},
+            {"4.50", "filter_price", "4.50"},
+    };
+
+    private UrlCorpus() {
+    }
+
+    public static Map<String, SeoDataResponseDTO> keywords() {
+        return rows(KEYWORDS);
+    }
+
+    public static Map<String, SeoDataResponseDTO> values() {
+        return rows(VALUES);
+    }
+
+    public static List<String> paths() {
+        List<String> paths = new ArrayList<>();
+        for (String[] request : REQUESTS) {
+            paths.add(request[0]);
+        }
+        return paths;
+    }
+
+    private static Map<String, SeoDataResponseDTO> rows(Object[][] table) {
+        Map<String, SeoDataResponseDTO> rows = new java.util.HashMap<>();
+        for (Object[] row : table) {
+            rows.put((String) row[0], new SeoDataResponseDTO(null, "0", "1", (String) row[1], null, (String) row[0], (String) row[2], "0", "1"));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,34 @@
+package com.abelini_routing_middleware.controller;
+
+import com.abelini_routing_middleware.benchmark.UrlCorpus;
+import com.abelini_routing_middleware.routing.RoutingRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code /routing-value} body: parsing the resolved target's query back into JSON.
+ * Lives in this package because {@link RoutingValueJson} is package-private.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoutingValueJsonBenchmark {
+    private final RoutingRequest request = new RoutingRequest("/routing-value/engagement-rings/classic-solitaire",
+            "https://www.abelini.com/routing-value/engagement-rings/classic-solitaire", "filter_param=1.6_3.177_4.50");
+    private final Set<String> keywords = new LinkedHashSet<>(List.of("engagement-rings", "classic-solitaire", "1.6", "3.177"));
+    private int next;
+
+    @Benchmark
+    public String build() {
+        String target = UrlCorpus.TARGETS[next];
+        next = next + 1 == UrlCorpus.TARGETS.length ? 0 : next + 1;
+        return RoutingValueJson.build(target, request, keywords);
+    }
+}
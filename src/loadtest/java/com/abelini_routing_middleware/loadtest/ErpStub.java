@@ -0,0 +1,96 @@
+package com.abelini_routing_middleware.loadtest;
+
+import com.abelini_routing_middleware.dto.SeoDataRequest;
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in for the ERP {@code seo_data.php}, answering keyword and value lookups from the
+ * {@link TrafficMix} catalogue after a configurable delay, and failing a configurable share
+ * of requests with a 500.
+ */
+final class ErpStub implements AutoCloseable {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, SeoDataResponseDTO> keywords;
+    private final Map<String, SeoDataResponseDTO> values;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final HttpServer server;
+    final LongAdder requests = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    ErpStub(TrafficMix mix, long latencyMs, long jitterMs, double errorRate) throws IOException {
+        this.keywords = mix.keywords();
+        this.values = mix.values();
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/seo_data.php", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/seo_data.php";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        SeoDataRequest request;
+        try (InputStream in = exchange.getRequestBody()) {
+            request = objectMapper.readValue(in, SeoDataRequest.class);
+        }
+        pause(latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0));
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            errors.increment();
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        Map<String, SeoDataResponseDTO> table = "value".equals(request.getType()) ? values : keywords;
+        List<SeoDataResponseDTO> rows = new ArrayList<>();
+        for (String part : request.getPathParts()) {
+            SeoDataResponseDTO row = table.get(part);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        byte[] body = objectMapper.writeValueAsBytes(rows);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static void pause(long millis) {
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
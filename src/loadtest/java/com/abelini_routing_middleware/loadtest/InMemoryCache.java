@@ -0,0 +1,32 @@
+package com.abelini_routing_middleware.loadtest;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Replaces the Redis-backed beans of {@code Config}, so the application runs without a
+ * Redis server. Passed to the application as an extra source (not scanned), and only with
+ * {@code loadtest.cache=memory}, the default; {@code loadtest.cache=redis} keeps the real
+ * two-tier cache against {@code spring.data.redis.*}.
+ */
+@ConditionalOnProperty(name = "loadtest.cache", havingValue = "memory", matchIfMissing = true)
+class InMemoryCache {
+
+    // the load test's URL set is bounded, so an unbounded map is enough
+    @Bean
+    CacheManager cacheManager() {
+        return new ConcurrentMapCacheManager("seoToQuery");
+    }
+
+    // no listeners, so it never connects
+    @Bean
+    RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
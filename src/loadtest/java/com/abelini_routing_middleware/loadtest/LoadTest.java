@@ -0,0 +1,165 @@
+package com.abelini_routing_middleware.loadtest;
+
+import com.abelini_routing_middleware.AbeliniRoutingMiddlewareApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * End-to-end load test: starts a stub ERP and a stub upstream site, starts the application
+ * against them, then offers an open-model request mix at each rate of a ramp and reports
+ * latency percentiles, throughput and the first rate the application could not sustain.
+ * <p>
+ * Options ({@code --name=value}):
+ * <pre>
+ * --rates=100,200,400,800,1600   offered requests per second, one step each
+ * --step-seconds=30              length of each step
+ * --warmup-seconds=15            unrecorded load at the first rate
+ * --slo-p99-ms=500               a step whose p99 exceeds this counts as saturated
+ * --erp-latency-ms=25 --erp-jitter-ms=25 --erp-error-rate=0.0
+ * --page-bytes=60000 --upstream-latency-ms=40 --upstream-jitter-ms=40
+ * --products=2000 --zipf=1.0     catalogue size and skew of the URL popularity
+ * --max-in-flight=5000 --timeout-ms=10000
+ * --target=http://host:port      drive a running deployment instead (no stubs, no app)
+ * --out=target/loadtest          results.csv is written here
+ * </pre>
+ * Any other option is passed to the application, e.g. {@code --proxy.page-cache.enabled=true},
+ * {@code --spring.threads.virtual.enabled=false} or {@code --loadtest.cache=redis} to use the
+ * real two-tier cache against {@code --spring.data.redis.host}. Note that the generator,
+ * the stubs and the application share this JVM's CPUs.
+ * <p>
+ * Run with the {@code loadtest} Maven profile, options going through {@code loadtest.args}:
+ * <pre>
+ * mvn -Ploadtest -DskipTests verify -Dloadtest.args="--rates=200,400,800 --erp-latency-ms=50"
+ * </pre>
+ */
+public final class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            (OPTIONS.contains(name) ? options : appProperties).put(name, value);
+        }
+
+        int[] rates = java.util.Arrays.stream(options.getOrDefault("rates", "100,200,400,800,1600").split(","))
+                .mapToInt(rate -> Integer.parseInt(rate.trim())).toArray();
+        int stepSeconds = integer(options, "step-seconds", 30);
+        int warmupSeconds = integer(options, "warmup-seconds", 15);
+        double sloP99 = Double.parseDouble(options.getOrDefault("slo-p99-ms", "500"));
+        TrafficMix mix = new TrafficMix(integer(options, "products", 2000), Double.parseDouble(options.getOrDefault("zipf", "1.0")));
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest"));
+
+        ErpStub erp = null;
+        UpstreamStub upstream = null;
+        ConfigurableApplicationContext app = null;
+        String target = options.get("target");
+        try {
+            if (target == null) {
+                erp = new ErpStub(mix, integer(options, "erp-latency-ms", 25), integer(options, "erp-jitter-ms", 25),
+                        Double.parseDouble(options.getOrDefault("erp-error-rate", "0")));
+                upstream = new UpstreamStub(integer(options, "page-bytes", 60_000), integer(options, "upstream-latency-ms", 40),
+                        integer(options, "upstream-jitter-ms", 40));
+                app = start(erp, upstream, appProperties);
+                target = "http://127.0.0.1:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+            }
+            System.out.printf("Driving %s with %d URLs%n", target, mix.size());
+
+            OpenLoadGenerator generator = new OpenLoadGenerator(target, mix, integer(options, "max-in-flight", 5000),
+                    Duration.ofMillis(integer(options, "timeout-ms", 10_000)));
+            if (warmupSeconds > 0) {
+                generator.run(rates[0], warmupSeconds);
+            }
+
+            List<OpenLoadGenerator.StepResult> results = new ArrayList<>();
+            System.out.println(" rate/s  completed  errors  dropped  timeout  thrpt/s   p50 ms   p99 ms  p999 ms   max ms  erp calls");
+            for (int rate : rates) {
+                long erpBefore = erp != null ? erp.requests.sum() : 0;
+                OpenLoadGenerator.StepResult result = generator.run(rate, stepSeconds);
+                long erpCalls = erp != null ? erp.requests.sum() - erpBefore : -1;
+                results.add(result);
+                System.out.printf(Locale.ROOT, "%7d %10d %7d %8d %8d %8.1f %8.2f %8.2f %8.2f %8.2f %10d%s%n",
+                        result.offeredRate(), result.completed(), result.errors(), result.dropped(), result.timedOut(),
+                        result.throughput(), result.p50(), result.p99(), result.p999(), result.max(), erpCalls,
+                        result.saturated(sloP99) ? "  saturated" : "");
+            }
+
+            OpenLoadGenerator.StepResult saturation = results.stream().filter(result -> result.saturated(sloP99)).findFirst().orElse(null);
+            if (saturation == null) {
+                System.out.printf("Not saturated up to %d req/s (p99 SLO %.0f ms)%n", rates[rates.length - 1], sloP99);
+            } else {
+                System.out.printf("Saturated at %d req/s (p99 SLO %.0f ms); sustained %.1f req/s%n", saturation.offeredRate(), sloP99,
+                        results.stream().filter(result -> !result.saturated(sloP99)).mapToDouble(OpenLoadGenerator.StepResult::throughput).max().orElse(0));
+            }
+            write(out.resolve("results.csv"), results, sloP99);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (upstream != null) {
+                upstream.close();
+            }
+            if (erp != null) {
+                erp.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static final List<String> OPTIONS = List.of("rates", "step-seconds", "warmup-seconds", "slo-p99-ms", "erp-latency-ms",
+            "erp-jitter-ms", "erp-error-rate", "page-bytes", "upstream-latency-ms", "upstream-jitter-ms", "products", "zipf",
+            "max-in-flight", "timeout-ms", "target", "out");
+
+    private static ConfigurableApplicationContext start(ErpStub erp, UpstreamStub upstream, Map<String, String> overrides) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("seo.data.api.url", erp.url());
+        properties.put("seo.index.enabled", "false");
+        properties.put("redirect.rules.erp-url", "");
+        properties.put("proxy.upstream.base-url", upstream.baseUrl());
+        properties.put("spring.main.allow-bean-definition-overriding", "true");
+        properties.put("management.health.redis.enabled", "false");
+        // every run starts cold, not from the hot keys of an earlier one
+        properties.put("cache.hot-keys.enabled", "false");
+        properties.put("logging.level.com.abelini_routing_middleware", "WARN");
+        properties.put("spring.devtools.restart.enabled", "false");
+        properties.putAll(overrides);
+
+        // as command-line arguments, so they take precedence over application.properties
+        String[] args = properties.entrySet().stream().map(entry -> "--" + entry.getKey() + "=" + entry.getValue()).toArray(String[]::new);
+        return new SpringApplicationBuilder(AbeliniRoutingMiddlewareApplication.class, InMemoryCache.class).run(args);
+    }
+
+    private static void write(Path file, List<OpenLoadGenerator.StepResult> results, double sloP99) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("offered_rate,offered,completed,errors,dropped,timed_out,throughput,p50_ms,p99_ms,p999_ms,max_ms,saturated");
+            for (OpenLoadGenerator.StepResult result : results) {
+                writer.printf(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%b%n", result.offeredRate(), result.offered(),
+                        result.completed(), result.errors(), result.dropped(), result.timedOut(), result.throughput(), result.p50(),
+                        result.p99(), result.p999(), result.max(), result.saturated(sloP99));
+            }
+        }
+        System.out.println("Results written to " + file.toAbsolutePath());
+    }
+
+    private static int integer(Map<String, String> options, String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+}
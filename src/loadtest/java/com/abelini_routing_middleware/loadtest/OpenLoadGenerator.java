@@ -0,0 +1,117 @@
+package com.abelini_routing_middleware.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests are sent at a fixed arrival rate whether or not earlier ones
+ * have completed, the way independent visitors arrive. Latency is measured from each
+ * request's scheduled send time, so a stalled server shows up as queueing delay instead of
+ * silently lowering the offered load (coordinated omission).
+ */
+final class OpenLoadGenerator {
+    private final String target;
+    private final TrafficMix mix;
+    private final int maxInFlight;
+    private final Duration timeout;
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    OpenLoadGenerator(String target, TrafficMix mix, int maxInFlight, Duration timeout) {
+        this.target = target;
+        this.mix = mix;
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param rate    offered requests per second
+     * @param seconds how long to offer them
+     */
+    StepResult run(int rate, int seconds) throws InterruptedException {
+        int total = rate * seconds;
+        long[] latencies = new long[total];
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+        int dropped = 0;
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+
+        for (int i = 0; i < total; i++) {
+            long intended = start + i * interval;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= maxInFlight) {
+                // the server is so far behind that more requests would only measure the generator
+                dropped++;
+                continue;
+            }
+            inFlight.incrementAndGet();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(target + mix.next(random)))
+                    .timeout(timeout)
+                    .header("User-Agent", "abelini-loadtest")
+                    .GET()
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long latency = System.nanoTime() - intended;
+                if (error != null || response.statusCode() >= 500) {
+                    errors.increment();
+                }
+                latencies[recorded.getAndIncrement()] = latency;
+                inFlight.decrementAndGet();
+            });
+        }
+        long offeredEnd = System.nanoTime();
+        long deadline = offeredEnd + timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        long end = System.nanoTime();
+
+        int completed = recorded.get();
+        long[] sorted = Arrays.copyOf(latencies, completed);
+        Arrays.sort(sorted);
+        double elapsedSeconds = (end - start) / 1e9;
+        return new StepResult(rate, total, completed, errors.intValue(), dropped, inFlight.get(), completed / elapsedSeconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    /**
+     * One step of the ramp. Latencies are in milliseconds; {@code timedOut} requests were
+     * still in flight when the step gave up waiting for them.
+     */
+    record StepResult(int offeredRate, int offered, int completed, int errors, int dropped, int timedOut, double throughput,
+                      double p50, double p99, double p999, double max) {
+
+        boolean saturated(double sloP99Millis) {
+            return throughput < offeredRate * 0.95 || dropped > 0 || timedOut > 0 || errors > offered * 0.01 || p99 > sloP99Millis;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.abelini_routing_middleware.loadtest;
+
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic catalogue and request mix. Category URLs are built from every combination of
+ * category, style, shape and metal, with and without filters and stone-type suffixes;
+ * products, blog articles, search, account pages and 404 probes make up the rest. URLs are
+ * drawn with a Zipf distribution, so a few are hot and there is a long tail, as on the live
+ * site, and the caches see realistic hit ratios.
+ */
+final class TrafficMix {
+    private static final String[] CATEGORIES = {"engagement-rings", "wedding-rings", "eternity-rings", "earrings", "pendants", "bracelets"};
+    private static final String[] STYLES = {"classic-solitaire", "halo", "trilogy", "vintage", "pave", "side-stone", "toi-et-moi", "bezel"};
+    private static final String[] SHAPES = {"round", "oval", "princess", "emerald", "cushion", "pear", "marquise", "radiant"};
+    private static final String[] METALS = {"yellow-gold", "white-gold", "rose-gold", "platinum"};
+    private static final String[] FILTER_VALUES = {"1.6", "1.8", "2.10", "2.12", "3.177", "3.181", "4.50", "4.75", "5.2", "5.3"};
+    private static final String[] SEARCHES = {"halo-ring", "oval-engagement-ring", "diamond-studs", "tennis-bracelet", "lab-grown"};
+
+    private final Map<String, SeoDataResponseDTO> keywords = new HashMap<>();
+    private final Map<String, SeoDataResponseDTO> values = new HashMap<>();
+    private final String[] urls;
+    private final double[] cumulative;
+
+    TrafficMix(int products, double zipfExponent) {
+        int id = 1;
+        for (String category : CATEGORIES) {
+            keyword(category, "category_id", id++);
+        }
+        for (String style : STYLES) {
+            keyword(style, "category_id", id++);
+        }
+        for (String shape : SHAPES) {
+            keyword(shape, "shape_id", id++);
+        }
+        for (String metal : METALS) {
+            keyword(metal, "metal_id", id++);
+        }
+        for (String value : FILTER_VALUES) {
+            values.put(value, row(value, "filter_" + value.charAt(0), value));
+        }
+
+        List<String> all = new ArrayList<>();
+        for (String category : CATEGORIES) {
+            all.add("/" + category);
+            for (String style : STYLES) {
+                all.add("/" + category + "/" + style);
+                all.add("/" + category + "/" + style + "?filter_param=" + FILTER_VALUES[style.length() % 10] + "_" + FILTER_VALUES[category.length() % 10]);
+                for (String shape : SHAPES) {
+                    String suffix = shape.length() % 3 == 0 ? "-lbg" : shape.length() % 3 == 1 ? "-msnt" : "";
+                    all.add("/" + category + "/" + style + "/" + shape + suffix);
+                    for (String metal : METALS) {
+                        all.add("/" + category + "/" + style + "/" + shape + "/" + metal + "?sort=p.price&order=ASC");
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < products; i++) {
+            String slug = STYLES[i % STYLES.length] + "-" + SHAPES[i % SHAPES.length] + "-diamond-ring-rine" + (3000 + i);
+            keyword(slug, "product_id", 8_800_000 + i);
+            all.add("/product/" + slug);
+        }
+        for (int i = 0; i < 50; i++) {
+            String slug = "how-to-choose-" + SHAPES[i % SHAPES.length] + "-diamonds-part-" + i;
+            keyword(slug, "article_id", 5000 + i);
+            all.add("/blog/" + slug);
+        }
+        for (String search : SEARCHES) {
+            all.add("/search/" + search);
+        }
+        keyword("order-info", "order_id", 0);
+        for (int i = 0; i < 20; i++) {
+            keyword(String.valueOf(10_000 + i), "order_id", 10_000 + i);
+            all.add("/account/order-info/" + (10_000 + i));
+        }
+        for (int i = 0; i < 20; i++) {
+            all.add("/wp-admin/probe-" + i + ".php");
+            all.add("/engagement-rings/unknown-style-" + i);
+        }
+
+        // shuffle so that rank (and so popularity) is unrelated to URL type
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = all.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String swap = all.get(i);
+            all.set(i, all.get(j));
+            all.set(j, swap);
+        }
+        urls = all.toArray(String[]::new);
+        cumulative = new double[urls.length];
+        double sum = 0;
+        for (int rank = 0; rank < urls.length; rank++) {
+            sum += 1 / Math.pow(rank + 1, zipfExponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < urls.length; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    String next(SplittableRandom random) {
+        double point = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < point) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return urls[low];
+    }
+
+    int size() {
+        return urls.length;
+    }
+
+    Map<String, SeoDataResponseDTO> keywords() {
+        return keywords;
+    }
+
+    Map<String, SeoDataResponseDTO> values() {
+        return values;
+    }
+
+    private void keyword(String keyword, String key, int shopifyId) {
+        keywords.put(keyword, row(keyword, key, String.valueOf(shopifyId)));
+    }
+
+    private static SeoDataResponseDTO row(String keyword, String key, String shopifyId) {
+        return new SeoDataResponseDTO(null, "0", "1", key, null, keyword, shopifyId, "0", "1");
+    }
+}
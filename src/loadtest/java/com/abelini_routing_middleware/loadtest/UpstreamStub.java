@@ -0,0 +1,66 @@
+package com.abelini_routing_middleware.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for the upstream PHP site: every {@code /internal/...} request gets an HTML page
+ * of the configured size after the configured delay.
+ */
+final class UpstreamStub implements AutoCloseable {
+    private final byte[] page;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final HttpServer server;
+
+    UpstreamStub(int pageBytes, long latencyMs, long jitterMs) throws IOException {
+        this.page = html(pageBytes);
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        ErpStub.pause(latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0));
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        exchange.getResponseHeaders().set("Cache-Control", "public, max-age=60");
+        int status = exchange.getRequestURI().getPath().startsWith("/internal/404") ? 404 : 200;
+        exchange.sendResponseHeaders(status, page.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(page);
+        }
+    }
+
+    // repetitive markup, so it compresses about as well as real product listings
+    private static byte[] html(int size) {
+        StringBuilder html = new StringBuilder(size + 64).append("<!DOCTYPE html><html><head><title>Abelini</title></head><body>");
+        int item = 0;
+        while (html.length() < size - 16) {
+            html.append("<div class=\"product\"><a href=\"/product/item-").append(item).append("\">Diamond ring ")
+                    .append(item++).append("</a><span class=\"price\">&pound;").append(900 + item * 7 % 4000).append("</span></div>\n");
+        }
+        html.append("</body></html>");
+        return html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
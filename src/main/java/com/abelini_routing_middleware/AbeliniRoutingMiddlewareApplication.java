@@ -3,10 +3,12 @@ package com.abelini_routing_middleware;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class AbeliniRoutingMiddlewareApplication {
 
     public static void main(String[] args) {
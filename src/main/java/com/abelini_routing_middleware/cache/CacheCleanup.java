@@ -0,0 +1,157 @@
+package com.abelini_routing_middleware.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Unlinks the Redis entries of older {@link CacheGenerations generations} after a bump, so they do not hold
+ * memory until their TTL. Jobs run one at a time in the background on the node that bumped: {@code SCAN} over
+ * {@code <cache>::*}, {@code cache.cleanup.scan-count} keys per call, {@code UNLINK} of the old ones, at most
+ * {@code cache.cleanup.keys-per-second} keys scanned. Progress is kept in the Redis hash {@code <cache>:cleanup}
+ * for a day, so any node can report it.
+ */
+@Log4j2
+@Component
+public class CacheCleanup {
+    private final StringRedisTemplate redisTemplate;
+    private final CacheGenerations generations;
+    private final int scanCount;
+    private final double keysPerSecond;
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CacheCleanup(StringRedisTemplate redisTemplate, CacheGenerations generations,
+                        @Value("${cache.cleanup.scan-count:1000}") int scanCount,
+                        @Value("${cache.cleanup.keys-per-second:20000}") double keysPerSecond) {
+        this.redisTemplate = redisTemplate;
+        this.generations = generations;
+        this.scanCount = scanCount;
+        this.keysPerSecond = keysPerSecond;
+    }
+
+    /**
+     * Queues a cleanup of {@code cacheName} below the generation current when it starts, unless one is queued already.
+     */
+    public void start(String cacheName) {
+        if (queued.add(cacheName)) {
+            worker.execute(() -> {
+                queued.remove(cacheName);
+                run(cacheName, generations.current(cacheName));
+            });
+        }
+    }
+
+    /**
+     * The last job's progress for {@code cacheName}: state, generation, scanned, unlinked, startedAt, finishedAt, error.
+     */
+    public Map<String, Object> progress(String cacheName) {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        try {
+            redisTemplate.<String, String>opsForHash().entries(progressKey(cacheName)).forEach(progress::put);
+        } catch (Exception e) {
+            progress.put("error", e.getMessage());
+        }
+        progress.putIfAbsent("state", "idle");
+        return progress;
+    }
+
+    private void run(String cacheName, long generation) {
+        if (generation == 0) {
+            return;
+        }
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long scanned = 0;
+        long unlinked = 0;
+        report(cacheName, "running", generation, 0, 0, startedAt, null);
+        ScanOptions options = ScanOptions.scanOptions().match(cacheName + "::*").count(scanCount).build();
+        List<String> old = new ArrayList<>(scanCount);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                long keyGeneration = CacheGenerations.generationOf(cacheName, key);
+                if (keyGeneration >= 0 && keyGeneration < generation) {
+                    old.add(key);
+                }
+                if (++scanned % scanCount == 0) {
+                    unlinked += unlink(old);
+                    report(cacheName, "running", generation, scanned, unlinked, startedAt, null);
+                    pace(start, scanned);
+                }
+            }
+            unlinked += unlink(old);
+            report(cacheName, "done", generation, scanned, unlinked, startedAt, null);
+            log.info("Cache cleanup of {} below generation {}: {} keys scanned, {} unlinked in {} ms", cacheName, generation,
+                    scanned, unlinked, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            report(cacheName, "failed", generation, scanned, unlinked, startedAt, e.getMessage());
+            log.warn("Cache cleanup of {} failed after {} keys: {}", cacheName, scanned, e.getMessage());
+        }
+    }
+
+    private long unlink(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long count = redisTemplate.unlink(keys);
+        keys.clear();
+        return count != null ? count : 0;
+    }
+
+    private void pace(long start, long scanned) {
+        long due = start + (long) (scanned / keysPerSecond * TimeUnit.SECONDS.toNanos(1));
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private void report(String cacheName, String state, long generation, long scanned, long unlinked,
+                        Instant startedAt, String error) {
+        Map<String, String> progress = new LinkedHashMap<>();
+        progress.put("state", state);
+        progress.put("generation", String.valueOf(generation));
+        progress.put("scanned", String.valueOf(scanned));
+        progress.put("unlinked", String.valueOf(unlinked));
+        progress.put("startedAt", startedAt.toString());
+        progress.put("finishedAt", "running".equals(state) ? "" : Instant.now().toString());
+        progress.put("error", error != null ? error : "");
+        try {
+            redisTemplate.opsForHash().putAll(progressKey(cacheName), progress);
+            redisTemplate.expire(progressKey(cacheName), Duration.ofDays(1));
+        } catch (Exception e) {
+            log.debug("Could not record cleanup progress of {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    private static String progressKey(String cacheName) {
+        return cacheName + ":cleanup";
+    }
+
+    @PreDestroy
+    public void close() {
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,44 @@
+package com.abelini_routing_middleware.cache;
+
+import com.abelini_routing_middleware.routing.RoutingResolution;
+
+import java.time.Duration;
+
+/**
+ * Lifetime of a cached value in the shared tier. Unresolved routing results (bot scans,
+ * random slugs) are negative entries: kept briefly so a keyword created in the ERP is
+ * picked up soon and junk URLs do not pile up for the full TTL.
+ * <p>
+ * Other entries are fresh for the TTL and then kept for a further {@code staleGrace}, in
+ * which they are still served while a refresh is attempted, so an ERP outage does not
+ * turn expired entries into misses.
+ */
+public final class CacheEntryTtl {
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Duration staleGrace;
+
+    public CacheEntryTtl(Duration ttl, Duration negativeTtl, Duration staleGrace) {
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.staleGrace = staleGrace;
+    }
+
+    /**
+     * How long {@code value} is kept, stale grace included.
+     */
+    public Duration of(Object value) {
+        return isNegative(value) ? negativeTtl : ttl.plus(staleGrace);
+    }
+
+    /**
+     * How long {@code value} counts as fresh.
+     */
+    public Duration freshFor(Object value) {
+        return isNegative(value) ? negativeTtl : ttl;
+    }
+
+    private static boolean isNegative(Object value) {
+        return value instanceof RoutingResolution resolution && resolution.isUnresolved();
+    }
+}
@@ -0,0 +1,128 @@
+package com.abelini_routing_middleware.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Generation counters that namespace the Redis entries of a cache, so clearing it is one {@code INCR}: entries
+ * are stored under {@code <cache>::g<generation>::<key>} ({@code <cache>::<key>} in generation 0, as before
+ * generations existed) and a bump makes every older entry unreachable at once. Old entries expire with their TTL;
+ * {@link CacheCleanup} unlinks them sooner.
+ * <p>
+ * The counter is the Redis key {@code <cache>:generation}. Nodes learn of a bump from the invalidation message of
+ * the clear, or from {@link #refresh()} when they missed it.
+ */
+@Log4j2
+@Component
+public class CacheGenerations {
+    private final StringRedisTemplate redisTemplate;
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private volatile Consumer<String> onAdvance = cacheName -> {
+    };
+
+    public CacheGenerations(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Puts {@code cacheName} under a generation, starting from the one stored in Redis.
+     */
+    public void track(String cacheName) {
+        generations.computeIfAbsent(cacheName, name -> new AtomicLong(load(name)));
+    }
+
+    public boolean tracks(String cacheName) {
+        return generations.containsKey(cacheName);
+    }
+
+    public long current(String cacheName) {
+        AtomicLong generation = generations.get(cacheName);
+        return generation != null ? generation.get() : 0;
+    }
+
+    /**
+     * The Redis key prefix of the current generation of {@code cacheName}; a {@code CacheKeyPrefix}.
+     */
+    public String prefixFor(String cacheName) {
+        return prefixFor(cacheName, current(cacheName));
+    }
+
+    static String prefixFor(String cacheName, long generation) {
+        return generation == 0 ? cacheName + "::" : cacheName + "::g" + generation + "::";
+    }
+
+    /**
+     * The generation a Redis key of {@code cacheName} was written in, or -1 if it is not an entry of that cache.
+     */
+    static long generationOf(String cacheName, String redisKey) {
+        String prefix = cacheName + "::";
+        if (!redisKey.startsWith(prefix)) {
+            return -1;
+        }
+        int start = prefix.length() + 1;
+        if (redisKey.length() <= start || redisKey.charAt(start - 1) != 'g') {
+            return 0;
+        }
+        int end = start;
+        while (end < redisKey.length() && Character.isDigit(redisKey.charAt(end))) {
+            end++;
+        }
+        // a generation is followed by "::"; anything else is a generation-0 key that happens to start with 'g'
+        if (end == start || !redisKey.startsWith("::", end)) {
+            return 0;
+        }
+        return Long.parseLong(redisKey, start, end, 10);
+    }
+
+    /**
+     * Called with the cache name whenever a generation moves on, to drop what was read from the old one.
+     */
+    public void onAdvance(Consumer<String> listener) {
+        this.onAdvance = listener;
+    }
+
+    long bump(String cacheName) {
+        Long next = redisTemplate.opsForValue().increment(counterKey(cacheName));
+        if (next == null) {
+            throw new IllegalStateException("No generation returned for " + cacheName);
+        }
+        advance(cacheName, next);
+        return next;
+    }
+
+    void advance(String cacheName, long generation) {
+        AtomicLong current = generations.get(cacheName);
+        if (current != null && current.getAndAccumulate(generation, Math::max) < generation) {
+            log.info("Cache {} is now at generation {}", cacheName, generation);
+            onAdvance.accept(cacheName);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.generation.refresh-ms:10000}", initialDelayString = "${cache.generation.refresh-ms:10000}")
+    public void refresh() {
+        for (String cacheName : generations.keySet()) {
+            advance(cacheName, load(cacheName));
+        }
+    }
+
+    private long load(String cacheName) {
+        try {
+            String value = redisTemplate.opsForValue().get(counterKey(cacheName));
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (Exception e) {
+            log.warn("Could not read the generation of {}: {}", cacheName, e.getMessage());
+            return 0;
+        }
+    }
+
+    private static String counterKey(String cacheName) {
+        return cacheName + ":generation";
+    }
+}
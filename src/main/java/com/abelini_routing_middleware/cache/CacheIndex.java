@@ -0,0 +1,181 @@
+package com.abelini_routing_middleware.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reverse index from what a {@code seoToQuery} resolution depended on to the cache keys it is stored under,
+ * so a purge can drop exactly the affected entries:
+ * <ul>
+ *     <li>{@code <prefix>kw:<keyword>}: a set of keys per SEO keyword or filter value looked up, or keyword
+ *     returned (lower case);</li>
+ *     <li>{@code <prefix>sid:<shopifyId>}: a set of keys per Shopify id the ERP returned;</li>
+ *     <li>{@code <prefix>paths:<epoch day>}: a sorted set of {@code path\nkey} members, all scored 0 so a
+ *     path prefix is one {@code ZRANGEBYLEX}; one set per day, dropped once its entries have expired.</li>
+ * </ul>
+ * Entries are indexed when they are resolved, off the request thread. Index keys outlive cache entries
+ * ({@code cache.index.ttl-seconds}), so a lookup may return keys that have expired already; evicting those
+ * is a no-op.
+ */
+@Log4j2
+@Component
+public class CacheIndex {
+    private static final char SEPARATOR = '\n';
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final String prefix;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final ExecutorService writer = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CacheIndex(StringRedisTemplate redisTemplate,
+                      @Value("${cache.index.enabled:true}") boolean enabled,
+                      @Value("${cache.index.prefix:seoToQuery:idx:}") String prefix,
+                      @Value("${cache.index.ttl-seconds:691200}") long ttlSeconds,
+                      @Value("${cache.index.purge-batch-size:500}") int purgeBatchSize) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.prefix = prefix;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * Indexes the entry {@code cacheKey} for {@code path} and the keywords and Shopify ids it was resolved from.
+     */
+    public void record(String cacheKey, String path, Collection<String> keywords, Collection<String> shopifyIds) {
+        if (!enabled) {
+            return;
+        }
+        String pathsKey = pathsKey(LocalDate.now(ZoneOffset.UTC));
+        long ttlSeconds = ttl.toSeconds();
+        writer.execute(() -> {
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection redis = (StringRedisConnection) connection;
+                    for (String keyword : keywords) {
+                        add(redis, keywordKey(keyword), cacheKey, ttlSeconds);
+                    }
+                    for (String shopifyId : shopifyIds) {
+                        add(redis, shopifyIdKey(shopifyId), cacheKey, ttlSeconds);
+                    }
+                    redis.zAdd(pathsKey, 0, path + SEPARATOR + cacheKey);
+                    redis.expire(pathsKey, ttlSeconds + Duration.ofDays(1).toSeconds());
+                    return null;
+                });
+            } catch (Exception e) {
+                log.warn("Could not index {}: {}", cacheKey, e.getMessage());
+            }
+        });
+    }
+
+    public Set<String> keysForKeyword(String keyword) {
+        return members(keywordKey(keyword));
+    }
+
+    public Set<String> keysForShopifyId(String shopifyId) {
+        return members(shopifyIdKey(shopifyId));
+    }
+
+    /**
+     * Keys of entries whose path starts with {@code pathPrefix}, from every day bucket still alive.
+     */
+    public Set<String> keysForPathPrefix(String pathPrefix) {
+        Set<String> keys = new LinkedHashSet<>();
+        Range<String> range = Range.closed(pathPrefix, pathPrefix + Character.MAX_VALUE);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (long day = 0; day <= ttl.toDays() + 1; day++) {
+            Set<String> members = redisTemplate.opsForZSet().rangeByLex(pathsKey(today.minusDays(day)), range, Limit.unlimited());
+            if (members != null) {
+                for (String member : members) {
+                    keys.add(member.substring(member.indexOf(SEPARATOR) + 1));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Drops the index sets of a purged keyword or Shopify id; path members simply age out with their bucket.
+     */
+    public void forget(String keyword, String shopifyId) {
+        if (keyword != null) {
+            redisTemplate.delete(keywordKey(keyword));
+        }
+        if (shopifyId != null) {
+            redisTemplate.delete(shopifyIdKey(shopifyId));
+        }
+    }
+
+    /**
+     * Evicts {@code keys} from {@code cache}, {@code cache.index.purge-batch-size} at a time; on a
+     * {@link TwoTierCache} each batch is one Redis {@code DEL} and one invalidation message.
+     */
+    public void evict(Cache cache, Collection<String> keys) {
+        List<String> batch = new ArrayList<>(Math.min(purgeBatchSize, keys.size()));
+        for (String key : keys) {
+            batch.add(key);
+            if (batch.size() == purgeBatchSize) {
+                evictBatch(cache, batch);
+                batch.clear();
+            }
+        }
+        evictBatch(cache, batch);
+    }
+
+    private static void evictBatch(Cache cache, List<String> keys) {
+        if (cache instanceof TwoTierCache twoTier) {
+            twoTier.evictAll(keys);
+        } else {
+            keys.forEach(cache::evict);
+        }
+    }
+
+    private Set<String> members(String key) {
+        Set<String> members = redisTemplate.opsForSet().members(key);
+        return members != null ? members : Set.of();
+    }
+
+    private static void add(StringRedisConnection redis, String key, String member, long ttlSeconds) {
+        redis.sAdd(key, member);
+        redis.expire(key, ttlSeconds);
+    }
+
+    private String keywordKey(String keyword) {
+        return prefix + "kw:" + keyword.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private String shopifyIdKey(String shopifyId) {
+        return prefix + "sid:" + shopifyId.trim();
+    }
+
+    private String pathsKey(LocalDate day) {
+        return prefix + "paths:" + day.toEpochDay();
+    }
+
+    @PreDestroy
+    public void close() {
+        writer.close();
+    }
+}
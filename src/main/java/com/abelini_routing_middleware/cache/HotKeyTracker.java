@@ -0,0 +1,149 @@
+package com.abelini_routing_middleware.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The most requested {@code seoToQuery} keys, kept so a cold node or a purged cache can be warmed with them.
+ * Requests are counted in memory (at most {@code cache.hot-keys.max-tracked} distinct keys per window); every
+ * {@code cache.hot-keys.persist-interval-ms} the window is folded into the fleet-wide Redis sorted set
+ * {@code cache.hot-keys.redis-key}, older scores halved so yesterday's hits fade, and trimmed to the top
+ * {@code cache.hot-keys.size}. The merged list is also written to {@code cache.hot-keys.file}, which still
+ * has it after a Redis flush.
+ */
+@Log4j2
+@Component
+public class HotKeyTracker {
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final String redisKey;
+    private final String windowKey;
+    private final Path file;
+    private final int size;
+    private final int maxTracked;
+    private volatile ConcurrentHashMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public HotKeyTracker(StringRedisTemplate redisTemplate,
+                         @Value("${cache.hot-keys.enabled:true}") boolean enabled,
+                         @Value("${cache.hot-keys.redis-key:seoToQuery:hot-keys}") String redisKey,
+                         @Value("${cache.hot-keys.file:${java.io.tmpdir}/seo-hot-keys.txt}") String file,
+                         @Value("${cache.hot-keys.size:5000}") int size,
+                         @Value("${cache.hot-keys.max-tracked:100000}") int maxTracked) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.redisKey = redisKey;
+        this.windowKey = redisKey + ":window:" + UUID.randomUUID();
+        this.file = Path.of(file);
+        this.size = size;
+        this.maxTracked = maxTracked;
+    }
+
+    public void record(String key) {
+        if (!enabled) {
+            return;
+        }
+        ConcurrentHashMap<String, LongAdder> window = counts;
+        LongAdder count = window.get(key);
+        if (count == null) {
+            if (window.size() >= maxTracked) {
+                return;
+            }
+            count = window.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${cache.hot-keys.persist-interval-ms:300000}",
+            initialDelayString = "${cache.hot-keys.persist-interval-ms:300000}")
+    public void persist() {
+        if (!enabled || counts.isEmpty()) {
+            return;
+        }
+        Map<String, LongAdder> window = counts;
+        counts = new ConcurrentHashMap<>();
+
+        List<Map.Entry<String, Long>> top = new ArrayList<>(window.size());
+        window.forEach((key, count) -> top.add(Map.entry(key, count.sum())));
+        top.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        List<Map.Entry<String, Long>> hottest = top.subList(0, Math.min(size, top.size()));
+
+        List<String> merged;
+        try {
+            merged = mergeIntoRedis(hottest);
+        } catch (Exception e) {
+            log.warn("Could not persist hot keys to Redis: {}", e.getMessage());
+            merged = hottest.stream().map(Map.Entry::getKey).toList();
+        }
+        writeFile(merged);
+    }
+
+    /**
+     * The hottest keys, hottest first: from Redis, or from the local file when Redis has none.
+     */
+    public List<String> hotKeys() {
+        if (!enabled) {
+            return List.of();
+        }
+        try {
+            Set<String> keys = redisTemplate.opsForZSet().reverseRange(redisKey, 0, size - 1);
+            if (keys != null && !keys.isEmpty()) {
+                return new ArrayList<>(keys);
+            }
+        } catch (Exception e) {
+            log.warn("Could not read hot keys from Redis: {}", e.getMessage());
+        }
+        try {
+            return Files.exists(file) ? Files.readAllLines(file, StandardCharsets.UTF_8) : List.of();
+        } catch (IOException e) {
+            log.warn("Could not read hot keys from {}: {}", file, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<String> mergeIntoRedis(List<Map.Entry<String, Long>> hottest) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>(hottest.size() * 2);
+        for (Map.Entry<String, Long> entry : hottest) {
+            tuples.add(new DefaultTypedTuple<>(entry.getKey(), entry.getValue().doubleValue()));
+        }
+        ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        zSet.add(windowKey, tuples);
+        redisTemplate.expire(windowKey, Duration.ofMinutes(5));
+        zSet.unionAndStore(redisKey, List.of(windowKey), redisKey, Aggregate.SUM, Weights.of(0.5, 1));
+        zSet.removeRange(redisKey, 0, -(size + 1L));
+        redisTemplate.delete(windowKey);
+        Set<String> merged = zSet.reverseRange(redisKey, 0, size - 1);
+        return merged != null ? new ArrayList<>(merged) : List.of();
+    }
+
+    private void writeFile(List<String> keys) {
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, keys, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write hot keys to {}: {}", file, e.getMessage());
+        }
+    }
+}
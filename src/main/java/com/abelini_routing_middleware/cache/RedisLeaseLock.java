@@ -0,0 +1,54 @@
+package com.abelini_routing_middleware.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Short-lived Redis lease ({@code SET NX PX}) used so only one node computes a missing
+ * cache entry. Redis errors fail open: the caller simply computes the value itself.
+ */
+@Log4j2
+class RedisLeaseLock {
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String owner;
+
+    RedisLeaseLock(StringRedisTemplate redisTemplate, String owner) {
+        this.redisTemplate = redisTemplate;
+        this.owner = owner;
+    }
+
+    boolean tryAcquire(String lockKey, Duration lease) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, owner, lease));
+        } catch (Exception e) {
+            log.warn("Could not acquire lease {} : {}", lockKey, e.getMessage());
+            return true;
+        }
+    }
+
+    // Redis errors read as not held, like tryAcquire failing open
+    boolean isHeld(String lockKey) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(lockKey));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    void release(String lockKey) {
+        try {
+            redisTemplate.execute(RELEASE, List.of(lockKey), owner);
+        } catch (Exception e) {
+            // the lease expires on its own
+            log.warn("Could not release lease {} : {}", lockKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.abelini_routing_middleware.cache;
+
+import com.abelini_routing_middleware.routing.RoutingResolution;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Stores {@link RoutingResolution}s in Redis in their compact binary form instead of
+ * JDK serialization. Unreadable entries decode to {@code null} and count as a miss.
+ */
+public class RoutingResolutionRedisSerializer implements RedisSerializer<RoutingResolution> {
+
+    @Override
+    public byte[] serialize(RoutingResolution value) {
+        return value == null ? null : value.toBytes();
+    }
+
+    @Override
+    public RoutingResolution deserialize(byte[] bytes) {
+        return RoutingResolution.fromBytes(bytes);
+    }
+}
@@ -0,0 +1,252 @@
+package com.abelini_routing_middleware.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A per-node Caffeine cache (L1) in front of the shared Redis cache (L2).
+ * <p>
+ * Reads fill L1 from L2, writes go to both, and evictions are applied locally and
+ * broadcast by {@link TwoTierCacheManager} so every node drops its L1 copy.
+ * <p>
+ * Misses loaded through {@link #get(Object, Callable)} (i.e. {@code @Cacheable(sync = true)})
+ * are single-flight: concurrent callers on this node share one load, and across nodes a
+ * short Redis lease lets one node compute while the others wait for its result in L2. The
+ * lease is released when that load fails, and one of the waiters then takes it over.
+ */
+public class TwoTierCache implements Cache {
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private final Cache remote;
+    private final TwoTierCacheManager manager;
+    private final TwoTierCacheStats stats = new TwoTierCacheStats();
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> local, Cache remote, TwoTierCacheManager manager) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the L1 Caffeine cache, so its stats can be read like any Caffeine-backed cache.
+     */
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    public Cache getRemoteCache() {
+        return remote;
+    }
+
+    public TwoTierCacheStats getStats() {
+        return stats;
+    }
+
+    public long localSize() {
+        return local.estimatedSize();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            stats.localHit();
+            return new SimpleValueWrapper(value);
+        }
+        long start = System.nanoTime();
+        ValueWrapper wrapper = remote.get(key);
+        boolean hit = wrapper != null && wrapper.get() != null;
+        stats.remoteGet(System.nanoTime() - start, hit);
+        if (hit) {
+            local.put(key, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            Object value = loadOnce(key, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Object loadOnce(Object key, Callable<?> valueLoader) {
+        String lockKey = manager.lockKey(name, key);
+        boolean leased = manager.tryLease(lockKey);
+        long deadline = manager.leaseDeadline();
+        while (!leased) {
+            // another node is computing this key: wait for its result rather than repeat the work
+            stats.leaseWait();
+            Object shared = manager.awaitRemote(remote, key, lockKey, deadline);
+            if (shared != null) {
+                local.put(key, shared);
+                return shared;
+            }
+            if (Thread.currentThread().isInterrupted() || System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            // its load failed and released the lease: one of the waiters takes over
+            leased = manager.tryLease(lockKey);
+        }
+        try {
+            Object value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            put(key, value);
+            return value;
+        } finally {
+            if (leased) {
+                manager.releaseLease(lockKey);
+            }
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long start = System.nanoTime();
+        remote.put(key, value);
+        stats.remotePut(System.nanoTime() - start);
+        if (value != null) {
+            local.put(key, value);
+        }
+    }
+
+    /**
+     * Replaces the value of {@code key} in both tiers and drops the other nodes' L1 copies, so they read it
+     * from Redis again; for refreshes of entries that are still being served.
+     */
+    public void replace(Object key, Object value) {
+        put(key, value);
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        Object current = existing != null ? existing.get() : value;
+        if (current != null) {
+            local.put(key, current);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        stats.eviction();
+        remote.evict(key);
+        evictLocal(key);
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        if (present) {
+            stats.eviction();
+        }
+        evictLocal(key);
+        manager.publishEvict(name, key);
+        return present;
+    }
+
+    /**
+     * Evicts {@code keys} from both tiers with one Redis {@code DEL} and one invalidation message, for purges
+     * of many entries at once.
+     */
+    public void evictAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (remote instanceof RedisCache redisCache) {
+            String keyPrefix = redisCache.getCacheConfiguration().getKeyPrefixFor(name);
+            manager.deleteRemote(keys.stream().map(key -> keyPrefix + key).toList());
+        } else {
+            keys.forEach(remote::evict);
+        }
+        keys.forEach(key -> stats.eviction());
+        local.invalidateAll(keys);
+        manager.publishEvictAll(name, keys);
+    }
+
+    /**
+     * Moves a generational cache to a new {@link CacheGenerations generation} instead of deleting its Redis entries;
+     * other caches are cleared in place.
+     */
+    @Override
+    public void clear() {
+        if (!manager.advanceGeneration(name)) {
+            remote.clear();
+        }
+        clearLocal();
+        manager.publishClear(name);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = remote.invalidate();
+        clearLocal();
+        manager.publishClear(name);
+        return present;
+    }
+
+    void evictLocal(Object key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+}
@@ -0,0 +1,236 @@
+package com.abelini_routing_middleware.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps the Redis cache manager so every cache gets a bounded Caffeine near-cache.
+ * <p>
+ * Evictions are published on a Redis channel as {@code nodeId|cacheName|op|key}; each
+ * node applies the ones it did not send to its own L1, so a purge on any node reaches
+ * all of them while hot reads stay inside the JVM.
+ * <p>
+ * It also owns the Redis lease used for cross-node single-flight loads; see {@link TwoTierCache}.
+ * <p>
+ * L1 entries live for {@code localTtl}, or for their {@link CacheEntryTtl} when that is
+ * shorter (negative entries).
+ * <p>
+ * Caches tracked by {@link CacheGenerations} are cleared by a generation bump, which the clear
+ * message carries to the other nodes; {@link CacheCleanup} then unlinks the old entries.
+ */
+@Log4j2
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+    private static final String EVICT = "e";
+    private static final String CLEAR = "c";
+    // keys separated by newlines, which cache keys (URLs) never contain
+    private static final String EVICT_ALL = "b";
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final CacheEntryTtl entryTtl;
+    private final Duration leaseDuration;
+    private final Duration leasePollInterval;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisLeaseLock leaseLock;
+    private final CacheGenerations generations;
+    private final CacheCleanup cleanup;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate, String channel,
+                               long localMaximumSize, Duration localTtl, CacheEntryTtl entryTtl,
+                               Duration leaseDuration, Duration leasePollInterval,
+                               CacheGenerations generations, CacheCleanup cleanup) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.entryTtl = entryTtl;
+        this.leaseDuration = leaseDuration;
+        this.leasePollInterval = leasePollInterval;
+        this.leaseLock = new RedisLeaseLock(redisTemplate, nodeId);
+        this.generations = generations;
+        this.cleanup = cleanup;
+        generations.onAdvance(cacheName -> {
+            TwoTierCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.clearLocal();
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    private TwoTierCache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfter(new Expiry<Object, Object>() {
+                    @Override
+                    public long expireAfterCreate(Object key, Object value, long currentTime) {
+                        return localTtlOf(value).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                        return localTtlOf(value).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        return new TwoTierCache(name, local, remote, this);
+    }
+
+    private Duration localTtlOf(Object value) {
+        Duration ttl = entryTtl.of(value);
+        return ttl.compareTo(localTtl) < 0 ? ttl : localTtl;
+    }
+
+    String lockKey(String cacheName, Object key) {
+        return "lock:" + cacheName + "::" + key;
+    }
+
+    boolean tryLease(String lockKey) {
+        return leaseLock.tryAcquire(lockKey, leaseDuration);
+    }
+
+    void releaseLease(String lockKey) {
+        leaseLock.release(lockKey);
+    }
+
+    /**
+     * The latest time (a {@link System#nanoTime()} value) a load waits for another node's lease before computing
+     * the value itself.
+     */
+    long leaseDeadline() {
+        return System.nanoTime() + leaseDuration.toNanos();
+    }
+
+    /**
+     * Polls the shared tier until another node's load shows up, its lease on {@code lockKey} goes away (released
+     * after a failed load, or expired) or {@code deadline} passes. Returns {@code null} if nothing arrived.
+     */
+    Object awaitRemote(Cache remote, Object key, String lockKey, long deadline) {
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(leasePollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Object value = remoteValue(remote, key);
+            if (value != null) {
+                return value;
+            }
+            if (!leaseLock.isHeld(lockKey)) {
+                // the holder may have stored its value just before releasing
+                return remoteValue(remote, key);
+            }
+        }
+        return null;
+    }
+
+    private static Object remoteValue(Cache remote, Object key) {
+        Cache.ValueWrapper wrapper = remote.get(key);
+        return wrapper != null ? wrapper.get() : null;
+    }
+
+    void publishEvict(String cacheName, Object key) {
+        publish(cacheName, EVICT, String.valueOf(key));
+    }
+
+    void publishEvictAll(String cacheName, Collection<String> keys) {
+        publish(cacheName, EVICT_ALL, String.join("\n", keys));
+    }
+
+    void deleteRemote(Collection<String> redisKeys) {
+        redisTemplate.delete(redisKeys);
+    }
+
+    /**
+     * Bumps the generation of {@code cacheName} and queues the cleanup of the old one. Returns false for a
+     * cache without generations, which has to be cleared in place.
+     */
+    boolean advanceGeneration(String cacheName) {
+        if (!generations.tracks(cacheName)) {
+            return false;
+        }
+        generations.bump(cacheName);
+        cleanup.start(cacheName);
+        return true;
+    }
+
+    void publishClear(String cacheName) {
+        publish(cacheName, CLEAR, generations.tracks(cacheName) ? String.valueOf(generations.current(cacheName)) : "");
+    }
+
+    private void publish(String cacheName, String op, String key) {
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + "|" + cacheName + "|" + op + "|" + key);
+        } catch (Exception e) {
+            // the local tier is already clean; other nodes catch up when their L1 entries expire
+            log.error("Failed to publish cache invalidation for {} : {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[2])) {
+            if (!parts[3].isEmpty()) {
+                generations.advance(parts[1], Long.parseLong(parts[3]));
+            }
+            cache.clearLocal();
+        } else if (EVICT_ALL.equals(parts[2])) {
+            for (String key : parts[3].split("\n")) {
+                cache.evictLocal(key);
+            }
+        } else {
+            cache.evictLocal(parts[3]);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.abelini_routing_middleware.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * Lets Spring Boot's cache metrics registrar bind {@link TwoTierCacheMetrics} to every
+ * {@link TwoTierCache} that exists at startup.
+ */
+public class TwoTierCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoTierCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TwoTierCache cache, Iterable<Tag> tags) {
+        return new TwoTierCacheMetrics(cache, tags);
+    }
+}
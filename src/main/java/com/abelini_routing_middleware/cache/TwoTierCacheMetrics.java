@@ -0,0 +1,80 @@
+package com.abelini_routing_middleware.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Standard {@code cache.*} meters for a {@link TwoTierCache} (hits count either tier), plus
+ * {@code cache.tier.hits} per tier, the Redis round trips as {@code cache.remote.gets} and
+ * {@code cache.remote.puts}, and {@code cache.lease.waits} for reads that waited on another
+ * node's load.
+ */
+public class TwoTierCacheMetrics extends CacheMeterBinder<TwoTierCache> {
+    private final TwoTierCacheStats stats;
+
+    public TwoTierCacheMetrics(TwoTierCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+        this.stats = cache.getStats();
+    }
+
+    @Override
+    protected Long size() {
+        TwoTierCache cache = getCache();
+        return cache == null ? null : cache.localSize();
+    }
+
+    @Override
+    protected long hitCount() {
+        return stats.getLocalHits() + stats.getRemoteHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return stats.getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return stats.getEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return stats.getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.tier.hits", stats, TwoTierCacheStats::getLocalHits)
+                .tags(getTagsWithCacheName()).tag("tier", "local")
+                .description("Reads answered by this node's near-cache")
+                .register(registry);
+        FunctionCounter.builder("cache.tier.hits", stats, TwoTierCacheStats::getRemoteHits)
+                .tags(getTagsWithCacheName()).tag("tier", "remote")
+                .description("Reads answered by Redis after a near-cache miss")
+                .register(registry);
+        FunctionTimer.builder("cache.remote.gets", stats, TwoTierCacheStats::getRemoteGets,
+                        TwoTierCacheStats::getRemoteGetNanos, TimeUnit.NANOSECONDS)
+                .tags(getTagsWithCacheName())
+                .description("Redis reads after a near-cache miss")
+                .register(registry);
+        FunctionTimer.builder("cache.remote.puts", stats, TwoTierCacheStats::getRemotePuts,
+                        TwoTierCacheStats::getRemotePutNanos, TimeUnit.NANOSECONDS)
+                .tags(getTagsWithCacheName())
+                .description("Redis writes")
+                .register(registry);
+        FunctionCounter.builder("cache.lease.waits", stats, TwoTierCacheStats::getLeaseWaits)
+                .tags(getTagsWithCacheName())
+                .description("Misses that waited for another node's load instead of computing")
+                .register(registry);
+        Gauge.builder("cache.tier.hit.ratio", stats, TwoTierCacheStats::hitRate)
+                .tags(getTagsWithCacheName())
+                .register(registry);
+    }
+}
@@ -0,0 +1,90 @@
+package com.abelini_routing_middleware.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counts for one {@link TwoTierCache}: which tier answered each read, and how long
+ * the Redis round trips took. Published by {@link TwoTierCacheMetrics}.
+ */
+public final class TwoTierCacheStats {
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder remoteGets = new LongAdder();
+    private final LongAdder remoteGetNanos = new LongAdder();
+    private final LongAdder remotePuts = new LongAdder();
+    private final LongAdder remotePutNanos = new LongAdder();
+    private final LongAdder leaseWaits = new LongAdder();
+
+    void localHit() {
+        localHits.increment();
+    }
+
+    void remoteGet(long nanos, boolean hit) {
+        remoteGets.increment();
+        remoteGetNanos.add(nanos);
+        (hit ? remoteHits : misses).increment();
+    }
+
+    void remotePut(long nanos) {
+        puts.increment();
+        remotePuts.increment();
+        remotePutNanos.add(nanos);
+    }
+
+    void eviction() {
+        evictions.increment();
+    }
+
+    void leaseWait() {
+        leaseWaits.increment();
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getRemoteGets() {
+        return remoteGets.sum();
+    }
+
+    public double getRemoteGetNanos() {
+        return remoteGetNanos.sum();
+    }
+
+    public long getRemotePuts() {
+        return remotePuts.sum();
+    }
+
+    public double getRemotePutNanos() {
+        return remotePutNanos.sum();
+    }
+
+    public long getLeaseWaits() {
+        return leaseWaits.sum();
+    }
+
+    public double hitRate() {
+        long hits = getLocalHits() + getRemoteHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
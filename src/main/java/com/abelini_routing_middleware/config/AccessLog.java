@@ -0,0 +1,97 @@
+package com.abelini_routing_middleware.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One access record per request on the {@code access} logger, as {@code key=value} pairs, plus the request
+ * correlation both web modes share. The request id is taken from a well-formed {@code X-Request-Id} or made
+ * up, echoed back on the response and kept in the MDC under {@code requestId} for every line of the request.
+ * <p>
+ * Debug detail is sampled per request: {@code logging.debug-sample.rate} of all requests, or the rate of the
+ * first matching {@code logging.debug-sample.paths} entry ({@code <path prefix>=<rate>}), run with
+ * {@code debugSampled=true} in the MDC, which {@link SampledDebugTurboFilter} turns into DEBUG output for the
+ * application's own loggers.
+ */
+@Log4j2(topic = "access")
+@Component
+public class AccessLog {
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String REQUEST_ID_MDC = "requestId";
+    public static final String DEBUG_SAMPLED_MDC = "debugSampled";
+    public static final String OUTCOME_ATTRIBUTE = AccessLog.class.getName() + ".outcome";
+    public static final String SOURCE_ATTRIBUTE = AccessLog.class.getName() + ".source";
+    public static final String UPSTREAM_NANOS_ATTRIBUTE = AccessLog.class.getName() + ".upstreamNanos";
+
+    private final double defaultRate;
+    private final Map<String, Double> pathRates = new LinkedHashMap<>();
+
+    public AccessLog(@Value("${logging.debug-sample.rate:0}") double defaultRate,
+                     @Value("${logging.debug-sample.paths:}") String[] pathRates) {
+        this.defaultRate = defaultRate;
+        for (String pathRate : pathRates) {
+            String[] parts = pathRate.trim().split("=", 2);
+            if (parts.length == 2) {
+                this.pathRates.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+    }
+
+    /**
+     * The caller's request id when it looks like one, otherwise a fresh random id.
+     */
+    public String requestId(String incoming) {
+        if (incoming != null && !incoming.isEmpty() && incoming.length() <= 64 && incoming.chars().allMatch(AccessLog::idChar)) {
+            return incoming;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Long.toHexString(random.nextLong() | Long.MIN_VALUE) + Long.toHexString(random.nextLong() | Long.MIN_VALUE);
+    }
+
+    public boolean sampleDebug(String path) {
+        double rate = defaultRate;
+        for (Map.Entry<String, Double> entry : pathRates.entrySet()) {
+            if (path.startsWith(entry.getKey())) {
+                rate = entry.getValue();
+                break;
+            }
+        }
+        return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Writes the record for a finished request; {@code outcome}, {@code source}, {@code cache} and
+     * {@code upstreamNanos} may be {@code null} when the request never got that far.
+     */
+    public void write(String requestId, String method, String path, int status, long durationNanos,
+                      Object outcome, Object source, String cache, Object upstreamNanos) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        StringBuilder record = new StringBuilder(160)
+                .append("requestId=").append(requestId)
+                .append(" method=").append(method)
+                .append(" path=").append(path)
+                .append(" status=").append(status)
+                .append(" durationMs=").append(millis(durationNanos))
+                .append(" outcome=").append(outcome != null ? outcome : "-")
+                .append(" source=").append(source != null ? source : "-")
+                .append(" cache=").append(cache != null ? cache : "-")
+                .append(" upstreamMs=").append(upstreamNanos instanceof Long nanos ? millis(nanos) : "-");
+        log.info(record);
+    }
+
+    private static String millis(long nanos) {
+        long tenths = nanos / 100_000;
+        return tenths / 10 + "." + tenths % 10;
+    }
+
+    private static boolean idChar(int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_' || c == '.';
+    }
+}
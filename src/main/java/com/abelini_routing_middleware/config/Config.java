@@ -1,6 +1,17 @@
 package com.abelini_routing_middleware.config;
 
+import com.abelini_routing_middleware.cache.CacheCleanup;
+import com.abelini_routing_middleware.cache.CacheEntryTtl;
+import com.abelini_routing_middleware.cache.CacheGenerations;
+import com.abelini_routing_middleware.cache.RoutingResolutionRedisSerializer;
+import com.abelini_routing_middleware.cache.TwoTierCacheManager;
+import com.abelini_routing_middleware.cache.TwoTierCacheMeterBinderProvider;
+import com.abelini_routing_middleware.seo.SeoChangeFeed;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +19,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
@@ -16,6 +31,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 import java.util.List;
@@ -38,14 +54,69 @@ public class Config {
 //    }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheEntryTtl cacheEntryTtl(@Value("${cache.negative-ttl-seconds:300}") long negativeTtlSeconds,
+                                       @Value("${cache.stale-grace-seconds:86400}") long staleGraceSeconds) {
+        return new CacheEntryTtl(Duration.ofDays(7), Duration.ofSeconds(negativeTtlSeconds), Duration.ofSeconds(staleGraceSeconds));
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     CacheEntryTtl cacheEntryTtl,
+                                     CacheGenerations cacheGenerations,
+                                     CacheCleanup cacheCleanup,
+                                     @Value("${cache.local.maximum-size:100000}") long localMaximumSize,
+                                     @Value("${cache.local.ttl-seconds:3600}") long localTtlSeconds,
+                                     @Value("${cache.invalidation.channel:seo-cache-invalidation}") String invalidationChannel,
+                                     @Value("${cache.single-flight.lease-ms:5000}") long leaseMs,
+                                     @Value("${cache.single-flight.poll-ms:50}") long leasePollMs) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofDays(7))
+                .entryTtl((key, value) -> cacheEntryTtl.of(value))
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
+        // resolutions are stored in their compact binary form rather than JDK serialization, under a generation
+        // prefix so purging all of them is one INCR
+        cacheGenerations.track("seoToQuery");
+        RedisCacheConfiguration seoToQueryConfig = config.serializeValuesWith(
+                        RedisSerializationContext.SerializationPair.fromSerializer(new RoutingResolutionRedisSerializer()))
+                .computePrefixWith(cacheGenerations::prefixFor);
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .withCacheConfiguration("seoToQuery", seoToQueryConfig)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(redisCacheManager, stringRedisTemplate, invalidationChannel,
+                localMaximumSize, Duration.ofSeconds(localTtlSeconds), cacheEntryTtl,
+                Duration.ofMillis(leaseMs), Duration.ofMillis(leasePollMs), cacheGenerations, cacheCleanup);
+        // created up front so the cache metrics registrar finds it at startup
+        cacheManager.getCache("seoToQuery");
+        return cacheManager;
+    }
+
+    @Bean
+    public TwoTierCacheMeterBinderProvider twoTierCacheMeterBinderProvider() {
+        return new TwoTierCacheMeterBinderProvider();
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheManager cacheManager,
+                                                                            SeoChangeFeed seoChangeFeed) {
+        // started by RedisSubscriptionStarter, so an unreachable Redis does not fail startup
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+            container.addMessageListener(twoTierCacheManager, new ChannelTopic(twoTierCacheManager.getChannel()));
+        }
+        container.addMessageListener(seoChangeFeed, new ChannelTopic(seoChangeFeed.getChannel()));
+        return container;
     }
 
     @Bean
@@ -71,12 +142,31 @@ public class Config {
         return restTemplate;
     }
 
+    // reactive mode runs on Reactor Netty's event loops rather than Tomcat, which is also on the classpath
     @Bean
-    public WebClient webClient() {
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // upstream client of the reactive proxy; sized and timed like the servlet UpstreamClient
+    @Bean
+    public WebClient webClient(@Value("${proxy.upstream.max-connections:200}") int maxConnections,
+                               @Value("${proxy.upstream.connect-timeout-ms:7000}") int connectTimeoutMs,
+                               @Value("${proxy.upstream.response-timeout-ms:60000}") long responseTimeoutMs,
+                               @Value("${proxy.upstream.pool-timeout-ms:2000}") long poolTimeoutMs,
+                               @Value("${proxy.upstream.idle-timeout-seconds:30}") long idleTimeoutSeconds) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("upstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(poolTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(idleTimeoutSeconds))
+                .metrics(true)
+                .build();
         return WebClient.builder()
                 .clientConnector(
-                        new ReactorClientHttpConnector(HttpClient.create()
-                                .responseTimeout(Duration.ofSeconds(40))
+                        new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+                                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
                         )
                 )
                 .build();
@@ -0,0 +1,47 @@
+package com.abelini_routing_middleware.config;
+
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive counterpart of {@link Slf4jMDCFilter}. A request hops between event-loop threads, so the
+ * request id is only put in the MDC around its access record, and debug sampling does not apply.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccessLogFilter implements WebFilter {
+
+    private final AccessLog accessLog;
+
+    public ReactiveAccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        String requestId = accessLog.requestId(exchange.getRequest().getHeaders().getFirst(AccessLog.REQUEST_ID_HEADER));
+        exchange.getResponse().getHeaders().set(AccessLog.REQUEST_ID_HEADER, requestId);
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            MDC.put(AccessLog.REQUEST_ID_MDC, requestId);
+            try {
+                accessLog.write(requestId, exchange.getRequest().getMethod().name(), exchange.getRequest().getURI().getRawPath(),
+                        status != null ? status.value() : 200, System.nanoTime() - start,
+                        exchange.getAttribute(AccessLog.OUTCOME_ATTRIBUTE), exchange.getAttribute(AccessLog.SOURCE_ATTRIBUTE),
+                        exchange.getResponse().getHeaders().getFirst("X-Cache"), exchange.getAttribute(AccessLog.UPSTREAM_NANOS_ATTRIBUTE));
+            } finally {
+                MDC.remove(AccessLog.REQUEST_ID_MDC);
+            }
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.abelini_routing_middleware.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the pub/sub subscriptions of {@code cacheInvalidationListenerContainer} after startup instead of during
+ * it, so the application comes up while Redis is unreachable. A failed subscribe is retried every
+ * {@code cache.invalidation.subscribe-retry-ms}; until then this node misses remote evictions and SEO changes and
+ * its near-cache entries live out their local TTL. Once subscribed, the container recovers lost connections itself.
+ */
+@Log4j2
+@Component
+public class RedisSubscriptionStarter {
+    private final RedisMessageListenerContainer container;
+
+    public RedisSubscriptionStarter(RedisMessageListenerContainer container) {
+        this.container = container;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${cache.invalidation.subscribe-retry-ms:5000}")
+    public void subscribe() {
+        if (container.isRunning()) {
+            return;
+        }
+        try {
+            container.start();
+            log.info("Subscribed to the Redis invalidation channels");
+        } catch (RuntimeException e) {
+            // a failed start leaves the container marked as running
+            container.stop();
+            log.warn("Could not subscribe to the Redis invalidation channels, retrying: {}", e.getMessage());
+        }
+    }
+}
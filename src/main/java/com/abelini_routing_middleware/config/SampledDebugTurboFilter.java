@@ -0,0 +1,25 @@
+package com.abelini_routing_middleware.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Lets DEBUG lines of the application's own loggers through for requests {@link AccessLog} sampled, whatever
+ * their configured level; framework and client wire logging stay at their levels. Registered in
+ * {@code logback-spring.xml}.
+ */
+public class SampledDebugTurboFilter extends TurboFilter {
+    private static final String PACKAGE = "com.abelini_routing_middleware.";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == Level.DEBUG && logger.getName().startsWith(PACKAGE) && "true".equals(MDC.get(AccessLog.DEBUG_SAMPLED_MDC))) {
+            return FilterReply.ACCEPT;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
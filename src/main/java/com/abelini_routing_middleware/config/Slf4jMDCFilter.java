@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -11,19 +12,44 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Puts the request id (and the debug sample flag) in the MDC for the whole request and writes its
+ * {@link AccessLog} record once the chain returns.
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class Slf4jMDCFilter extends OncePerRequestFilter {
 
+    private final AccessLog accessLog;
+
+    public Slf4jMDCFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        String requestId = accessLog.requestId(request.getHeader(AccessLog.REQUEST_ID_HEADER));
+        MDC.put(AccessLog.REQUEST_ID_MDC, requestId);
+        if (accessLog.sampleDebug(request.getRequestURI())) {
+            MDC.put(AccessLog.DEBUG_SAMPLED_MDC, "true");
+        }
 
+        response.setHeader(AccessLog.REQUEST_ID_HEADER, requestId);
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Credentials", "true");
         response.setHeader("Access-Control-Allow-Methods", "POST, GET, OPTIONS, DELETE, PUT, PATCH");
         response.setHeader("Access-Control-Max-Age", "3600");
         response.setHeader("Access-Control-Allow-Headers", "*");
 
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            accessLog.write(requestId, request.getMethod(), request.getRequestURI(), response.getStatus(), System.nanoTime() - start,
+                    request.getAttribute(AccessLog.OUTCOME_ATTRIBUTE), request.getAttribute(AccessLog.SOURCE_ATTRIBUTE),
+                    response.getHeader("X-Cache"), request.getAttribute(AccessLog.UPSTREAM_NANOS_ATTRIBUTE));
+            MDC.remove(AccessLog.REQUEST_ID_MDC);
+            MDC.remove(AccessLog.DEBUG_SAMPLED_MDC);
+        }
 	}
-}
\ No newline at end of file
+}
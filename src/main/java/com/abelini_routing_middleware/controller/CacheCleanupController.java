@@ -0,0 +1,46 @@
+package com.abelini_routing_middleware.controller;
+
+import com.abelini_routing_middleware.cache.CacheCleanup;
+import com.abelini_routing_middleware.cache.CacheGenerations;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Progress of the background unlinking of {@code seoToQuery} entries left behind by a purge-all, and a way to
+ * start it again (e.g. after it failed).
+ */
+@Controller
+public class CacheCleanupController {
+    private static final String CACHE_NAME = "seoToQuery";
+
+    private final CacheCleanup cacheCleanup;
+    private final CacheGenerations cacheGenerations;
+
+    public CacheCleanupController(CacheCleanup cacheCleanup, CacheGenerations cacheGenerations) {
+        this.cacheCleanup = cacheCleanup;
+        this.cacheGenerations = cacheGenerations;
+    }
+
+    @GetMapping("/seo-url/purge-cache/cleanup")
+    public ResponseEntity<?> progress() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("cache", CACHE_NAME);
+        response.put("currentGeneration", cacheGenerations.current(CACHE_NAME));
+        response.put("cleanup", cacheCleanup.progress(CACHE_NAME));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/seo-url/purge-cache/cleanup")
+    public ResponseEntity<?> start() {
+        cacheCleanup.start(CACHE_NAME);
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("message", "Cleanup of 'seoToQuery' below generation " + cacheGenerations.current(CACHE_NAME) + " queued.");
+        return ResponseEntity.ok(response);
+    }
+}
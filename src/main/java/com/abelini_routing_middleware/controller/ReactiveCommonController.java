@@ -0,0 +1,167 @@
+package com.abelini_routing_middleware.controller;
+
+import com.abelini_routing_middleware.CommonService;
+import com.abelini_routing_middleware.config.AccessLog;
+import com.abelini_routing_middleware.dto.CachePurgeRequest;
+import com.abelini_routing_middleware.dto.SeoChangeBatch;
+import com.abelini_routing_middleware.routing.ReactiveRoutingService;
+import com.abelini_routing_middleware.routing.RoutingRequest;
+import com.abelini_routing_middleware.routing.RoutingResolution;
+import com.abelini_routing_middleware.seo.SeoChangeFeed;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * Reactive counterpart of {@link CommonController}, active when the application runs with
+ * {@code spring.main.web-application-type=reactive}. Resolution never blocks (see
+ * {@link ReactiveRoutingService}) and upstream bodies are streamed through
+ * {@link WebClient} with backpressure in both directions.
+ */
+@Log4j2
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCommonController {
+    // hop-by-hop headers, plus the ones the client computes itself
+    private static final Set<String> SKIPPED_REQUEST_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "host", "upgrade", "te");
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding");
+
+    private final ReactiveRoutingService reactiveRoutingService;
+    private final CommonService commonService;
+    private final WebClient webClient;
+    private final SeoChangeFeed seoChangeFeed;
+
+    @Value("${proxy.upstream.base-url:}")
+    private String upstreamBaseUrl;
+
+    public ReactiveCommonController(ReactiveRoutingService reactiveRoutingService, CommonService commonService, WebClient webClient,
+                                    SeoChangeFeed seoChangeFeed) {
+        this.reactiveRoutingService = reactiveRoutingService;
+        this.commonService = commonService;
+        this.webClient = webClient;
+        this.seoChangeFeed = seoChangeFeed;
+    }
+
+    @RequestMapping("/**")
+    public Mono<Void> proxyRequest(ServerWebExchange exchange) {
+        log.debug("proxy");
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        if (request.getURI().getRawPath().startsWith("/internal/")) {
+            log.debug("internal path received return error");
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Error while processing request."));
+        }
+
+        return reactiveRoutingService.resolve(RoutingRequest.from(request)).flatMap(resolution -> {
+            exchange.getAttributes().put(AccessLog.OUTCOME_ATTRIBUTE, resolution.outcome());
+            String targetUrl = resolution.replay(exchange);
+            log.debug("target url inside proxy ::: {}", targetUrl);
+            if (targetUrl == null) {
+                log.debug("Redirect already handled, returning early.");
+                return response.setComplete();
+            }
+            String baseUrl = upstreamBaseUrl != null && !upstreamBaseUrl.isBlank() ? upstreamBaseUrl : publicBaseUrl(request);
+            String completeUrl = baseUrl + targetUrl;
+            log.debug("complete url: {}", completeUrl);
+            return forward(request, response, completeUrl);
+        });
+    }
+
+    @RequestMapping("/routing-value/**")
+    public Mono<ResponseEntity<String>> proxyPathRequest(ServerWebExchange exchange) {
+        log.debug("routing value");
+        ServerHttpRequest request = exchange.getRequest();
+        RoutingRequest routingRequest = RoutingRequest.from(request);
+        return reactiveRoutingService.resolve(routingRequest).map(resolution -> {
+            exchange.getAttributes().put(AccessLog.OUTCOME_ATTRIBUTE, resolution.outcome());
+            String targetUrl = resolution.replay(exchange);
+            if (targetUrl == null) {
+                log.debug("Redirect already handled, returning early.");
+                return ResponseEntity.status(exchange.getResponse().getStatusCode()).<String>build();
+            }
+            String completeUrl = publicBaseUrl(request) + targetUrl;
+            @SuppressWarnings("unchecked")
+            Set<String> keywords = (Set<String>) exchange.getAttributes().get(RoutingResolution.KEYWORDS_ATTRIBUTE);
+            return ResponseEntity.ok().body(RoutingValueJson.build(completeUrl, routingRequest, keywords));
+        }).onErrorResume(e -> {
+            log.error("Error while proxying the response", e);
+            return Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error while processing request."));
+        });
+    }
+
+    @PostMapping("/seo-url/purge-cache")
+    public Mono<ResponseEntity<?>> purgeCacheUrl(@RequestBody CachePurgeRequest payload) {
+        // eviction goes through the blocking cache manager, so keep it off the event loop
+        return Mono.<ResponseEntity<?>>fromCallable(() -> commonService.purgeCacheUrl(payload))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/seo-url/changes")
+    public Mono<ResponseEntity<?>> ingestSeoChanges(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                                    @RequestBody SeoChangeBatch payload) {
+        // index lookups and evictions are blocking Redis calls, as for purges
+        return Mono.<ResponseEntity<?>>fromCallable(() -> seoChangeFeed.ingest(authorization, payload))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Void> forward(ServerHttpRequest request, ServerHttpResponse response, String completeUrl) {
+        HttpMethod method = request.getMethod();
+        WebClient.RequestBodySpec upstreamRequest = webClient.method(method)
+                .uri(URI.create(completeUrl))
+                .headers(headers -> request.getHeaders().forEach((name, values) -> {
+                    if (!SKIPPED_REQUEST_HEADERS.contains(name.toLowerCase())) {
+                        headers.addAll(name, values);
+                    }
+                }));
+        WebClient.RequestHeadersSpec<?> upstream = HttpMethod.POST.equals(method) || HttpMethod.PUT.equals(method) || HttpMethod.PATCH.equals(method)
+                ? upstreamRequest.body(BodyInserters.fromDataBuffers(request.getBody()))
+                : upstreamRequest;
+
+        return upstream.exchangeToMono(upstreamResponse -> {
+            log.debug("status :{}", upstreamResponse.statusCode().value());
+            response.setStatusCode(upstreamResponse.statusCode());
+            HttpHeaders headers = response.getHeaders();
+            upstreamResponse.headers().asHttpHeaders().forEach((name, values) -> {
+                if (!SKIPPED_RESPONSE_HEADERS.contains(name.toLowerCase())) {
+                    headers.put(name, values);
+                }
+            });
+            return response.writeWith(upstreamResponse.bodyToFlux(DataBuffer.class));
+        }).onErrorResume(e -> {
+            log.error("Error while proxying the response", e);
+            if (response.isCommitted()) {
+                return Mono.error(e);
+            }
+            return Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error while processing request."));
+        });
+    }
+
+    private static String publicBaseUrl(ServerHttpRequest request) {
+        URI uri = request.getURI();
+        int port = uri.getPort();
+        return "https://" + uri.getHost() + (port == -1 || port == 80 || port == 443 ? "" : ":" + port);
+    }
+}
@@ -0,0 +1,65 @@
+package com.abelini_routing_middleware.controller;
+
+import com.abelini_routing_middleware.redirect.RedirectRule;
+import com.abelini_routing_middleware.redirect.RedirectService;
+import com.abelini_routing_middleware.redirect.RedirectTable;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.*;
+
+/**
+ * Hit counts for the legacy redirect rules, so rules nobody requests any more can be
+ * retired. Counts are per node and start at zero with the process.
+ */
+@Log4j2
+@Controller
+public class RedirectRulesController {
+    private final RedirectService redirectService;
+
+    public RedirectRulesController(RedirectService redirectService) {
+        this.redirectService = redirectService;
+    }
+
+    /**
+     * Rules with at most {@code maxHits} hits (all rules when omitted), least used first.
+     */
+    @GetMapping("/redirect-rules/hits")
+    public ResponseEntity<?> hits(@RequestParam(required = false) Long maxHits) {
+        RedirectTable table = redirectService.current();
+        List<Map<String, Object>> rules = new ArrayList<>();
+        for (int i = 0; i < table.size(); i++) {
+            long hits = table.hits(i);
+            if (maxHits != null && hits > maxHits) {
+                continue;
+            }
+            RedirectRule rule = table.rule(i);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("type", rule.type().name().toLowerCase(Locale.ROOT));
+            entry.put("source", rule.source());
+            entry.put("target", rule.target());
+            entry.put("status", rule.status());
+            entry.put("hits", hits);
+            rules.add(entry);
+        }
+        rules.sort(Comparator.comparingLong(entry -> (Long) entry.get("hits")));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("total", table.size());
+        response.put("rules", rules);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/redirect-rules/reload")
+    public ResponseEntity<?> reload() {
+        Map<String, Object> response = new HashMap<>();
+        boolean reloaded = redirectService.reload();
+        response.put("status", reloaded ? "success" : "error");
+        response.put("rules", redirectService.current().size());
+        return ResponseEntity.ok(response);
+    }
+}
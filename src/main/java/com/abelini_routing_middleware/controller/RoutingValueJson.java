@@ -0,0 +1,75 @@
+package com.abelini_routing_middleware.controller;
+
+import com.abelini_routing_middleware.routing.RoutingRequest;
+import com.abelini_routing_middleware.routing.UrlTokenizer;
+import lombok.extern.log4j.Log4j2;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Body of the {@code /routing-value/**} response, shared by the servlet and reactive controllers.
+ */
+@Log4j2
+final class RoutingValueJson {
+
+    private RoutingValueJson() {
+    }
+
+    static String build(String completeUrl, RoutingRequest request, Set<String> keywords) {
+        URI uri = URI.create(completeUrl);
+        log.debug("full path in routing value ::: {}", uri.getPath());
+
+        String fullPath = uri.getPath().replaceFirst("^/internal", "");
+
+        Map<String, String> queryParams = parseQueryParams(uri.getQuery());
+
+        log.debug("all query params in routing value ::: {}", queryParams);
+
+        String queryString = request.getQueryString();
+        String hitUrl = (request.getRequestUrl() + (queryString != null ? "?" + queryString : "")).replace("/routing-value", "");
+        String hitUrlPath = request.getRequestUri().replace("/routing-value", "") + (queryString != null ? "?" + queryString : "");
+
+        String hitKeyword = queryParams.getOrDefault("hitUrlKeyword", "");
+        String hitQuery = queryParams.getOrDefault("hitUrlQuery", "");
+
+        log.debug("keyword {}", hitKeyword);
+        log.debug("query {}", hitQuery);
+
+        // Prepare response
+        JSONObject json = new JSONObject();
+        json.put("url", completeUrl);
+        json.put("path", fullPath);
+        json.put("hitUrl", hitUrl);
+        json.put("hitUrlPath", hitUrlPath);
+        json.put("hitUrlKeyword", hitKeyword);
+        json.put("hitUrlQuery", hitQuery);
+        queryParams.forEach(json::put);
+
+        if (keywords == null || keywords.isEmpty()) {
+            json.put("keywords", new JSONArray());
+        } else {
+            JSONArray keywordArray = new JSONArray();
+            for (String keyword : keywords) {
+                if (keyword != null && !keyword.isBlank()) {
+                    keywordArray.put(keyword);
+                }
+            }
+            json.put("keywords", keywordArray);
+        }
+        return json.toString();
+    }
+
+    private static Map<String, String> parseQueryParams(String query) {
+        Map<String, String> params = new LinkedHashMap<>();
+        UrlTokenizer.forEachParam(query, (name, value) -> params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                value != null ? URLDecoder.decode(value, StandardCharsets.UTF_8) : ""));
+        return params;
+    }
+}
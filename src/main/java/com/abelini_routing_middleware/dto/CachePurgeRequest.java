@@ -10,4 +10,8 @@ import lombok.NoArgsConstructor;
 public class CachePurgeRequest {
     private boolean purgeAll = false;
     private String url;
+    // purge every entry resolved from this SEO keyword, Shopify id, or under this path prefix (e.g. /engagement-rings)
+    private String keyword;
+    private String shopifyId;
+    private String prefix;
 }
@@ -0,0 +1,16 @@
+package com.abelini_routing_middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeoChange {
+    // insert, update or delete
+    private String op;
+    private SeoDataResponseDTO row;
+    // the row before an update; needed when the update changed its keyword, value or shopify id
+    private SeoDataResponseDTO previous;
+}
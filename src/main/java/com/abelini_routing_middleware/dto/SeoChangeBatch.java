@@ -0,0 +1,17 @@
+package com.abelini_routing_middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeoChangeBatch {
+    // consecutive per batch; a replayed batch carries its original number
+    private long sequence;
+    private List<SeoChange> changes = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.abelini_routing_middleware.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeoDataSyncRequest {
+    public int storeId = 0;
+    public int languageId = 1;
+    public String type = "export";
+    // epoch seconds, null for a full export
+    public Long changedSince;
+    public int offset = 0;
+    public int limit = 5000;
+}
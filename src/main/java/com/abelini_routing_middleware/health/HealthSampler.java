@@ -0,0 +1,265 @@
+package com.abelini_routing_middleware.health;
+
+import com.abelini_routing_middleware.cache.TwoTierCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.GlobalMemory;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+import oshi.software.os.OSFileStore;
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the health page's numbers current off the request path. Every {@code health.sample-interval-ms}
+ * CPU (as the load between two samples, so nothing sleeps), memory, thread counts and cache stats are
+ * re-read; disks, network interfaces and the per-state thread dump only every
+ * {@code health.slow-sample-interval-ms}. Each pass publishes an immutable {@link HealthSnapshot}, including
+ * average and peak CPU and memory over the last 1, 5 and 15 minutes.
+ */
+@Log4j2
+@Component
+public class HealthSampler {
+    private static final Duration[] WINDOWS = {Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15)};
+
+    private final ApplicationContext applicationContext;
+    private final CacheManager cacheManager;
+    private final long slowIntervalMs;
+    private final SystemInfo systemInfo = new SystemInfo();
+    private final HardwareAbstractionLayer hal = systemInfo.getHardware();
+    private final OperatingSystem os = systemInfo.getOperatingSystem();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final Deque<Point> points = new ArrayDeque<>();
+
+    private long[] prevSystemCpuTicks;
+    private OSProcess prevProcess;
+    private long lastSlowSample;
+    private List<Map<String, Object>> disks = List.of();
+    private List<Map<String, Object>> network = List.of();
+    private Map<String, Long> threadStates = Map.of();
+    private volatile HealthSnapshot snapshot;
+
+    public HealthSampler(ApplicationContext applicationContext, CacheManager cacheManager,
+                         @Value("${health.slow-sample-interval-ms:60000}") long slowIntervalMs) {
+        this.applicationContext = applicationContext;
+        this.cacheManager = cacheManager;
+        this.slowIntervalMs = slowIntervalMs;
+    }
+
+    @PostConstruct
+    void init() {
+        prevSystemCpuTicks = hal.getProcessor().getSystemCpuLoadTicks();
+        prevProcess = os.getProcess(os.getProcessId());
+        sample();
+    }
+
+    /**
+     * The latest snapshot; never {@code null} once the bean is initialised.
+     */
+    public HealthSnapshot current() {
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${health.sample-interval-ms:5000}", initialDelayString = "${health.sample-interval-ms:5000}")
+    public synchronized void sample() {
+        try {
+            snapshot = takeSnapshot();
+        } catch (RuntimeException e) {
+            // keep serving the previous snapshot; its age shows the sampler is behind
+            log.warn("Health sample failed: {}", e.getMessage());
+        }
+    }
+
+    private HealthSnapshot takeSnapshot() {
+        Instant now = Instant.now();
+        CentralProcessor processor = hal.getProcessor();
+        OSProcess process = os.getProcess(os.getProcessId());
+
+        double systemCpuLoad = processor.getSystemCpuLoadBetweenTicks(prevSystemCpuTicks) * 100.0;
+        double appCpuLoad = process.getProcessCpuLoadBetweenTicks(prevProcess) * 100.0 / processor.getLogicalProcessorCount();
+        prevSystemCpuTicks = processor.getSystemCpuLoadTicks();
+        prevProcess = process;
+
+        GlobalMemory memory = hal.getMemory();
+        long totalMem = memory.getTotal();
+        long availMem = memory.getAvailable();
+        long usedMem = totalMem - availMem;
+
+        if (now.toEpochMilli() - lastSlowSample >= slowIntervalMs) {
+            disks = disks();
+            network = network();
+            threadStates = threadStates();
+            lastSlowSample = now.toEpochMilli();
+        }
+
+        Map<String, Object> system = new HashMap<>();
+        system.put("cpuLoad", String.format("%.2f", systemCpuLoad));
+        system.put("availableProcessors", processor.getLogicalProcessorCount());
+        system.put("totalMemoryMB", totalMem / (1024 * 1024));
+        system.put("usedMemoryMB", usedMem / (1024 * 1024));
+        system.put("freeMemoryMB", availMem / (1024 * 1024));
+        system.put("javaVersion", System.getProperty("java.version"));
+        system.put("jvmUptimeSec", ManagementFactory.getRuntimeMXBean().getUptime() / 1000);
+        system.put("systemUptimeSec", os.getSystemUptime());
+
+        Map<String, Object> appResource = new HashMap<>();
+        appResource.put("appPid", process.getProcessID());
+        appResource.put("appUptimeSec", process.getUpTime() / 1000);
+        appResource.put("appCpuLoadPercent", String.format("%.2f", appCpuLoad));
+        appResource.put("appMemoryUsedMB", process.getResidentSetSize() / (1024 * 1024));
+        appResource.put("appVirtualMemoryMB", process.getVirtualSize() / (1024 * 1024));
+        appResource.put("appThreadCount", process.getThreadCount());
+        appResource.put("jvmLiveThreads", threadBean.getThreadCount());
+        appResource.put("jvmDaemonThreads", threadBean.getDaemonThreadCount());
+        appResource.put("jvmTotalStartedThreads", threadBean.getTotalStartedThreadCount());
+        appResource.put("jvmThreadStates", threadStates);
+        try {
+            ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) applicationContext.getBean("taskExecutor");
+            appResource.put("threadPoolActive", executor.getActiveCount());
+            appResource.put("threadPoolSize", executor.getPoolSize());
+            appResource.put("threadPoolInfo", null);
+        } catch (Exception e) {
+            appResource.put("threadPoolInfo", "Not available or not configured.");
+        }
+
+        points.addLast(new Point(now.toEpochMilli(), systemCpuLoad, appCpuLoad, process.getResidentSetSize() / (1024 * 1024)));
+        long oldest = now.toEpochMilli() - WINDOWS[WINDOWS.length - 1].toMillis();
+        while (points.peekFirst().epochMillis() < oldest) {
+            points.removeFirst();
+        }
+
+        return new HealthSnapshot(now, system, appResource, disks, network, cacheStats(), history(now.toEpochMilli()));
+    }
+
+    private List<Map<String, Object>> history(long now) {
+        List<Map<String, Object>> history = new ArrayList<>();
+        for (Duration window : WINDOWS) {
+            long from = now - window.toMillis();
+            int samples = 0;
+            double cpuSum = 0, cpuMax = 0, appCpuSum = 0, appCpuMax = 0;
+            long memoryMax = 0;
+            for (Point point : points) {
+                if (point.epochMillis() >= from) {
+                    samples++;
+                    cpuSum += point.systemCpu();
+                    cpuMax = Math.max(cpuMax, point.systemCpu());
+                    appCpuSum += point.appCpu();
+                    appCpuMax = Math.max(appCpuMax, point.appCpu());
+                    memoryMax = Math.max(memoryMax, point.appMemoryMB());
+                }
+            }
+            Map<String, Object> row = new HashMap<>();
+            row.put("window", window.toMinutes() + " min");
+            row.put("samples", samples);
+            row.put("cpuAvg", String.format("%.2f", samples == 0 ? 0 : cpuSum / samples));
+            row.put("cpuMax", String.format("%.2f", cpuMax));
+            row.put("appCpuAvg", String.format("%.2f", samples == 0 ? 0 : appCpuSum / samples));
+            row.put("appCpuMax", String.format("%.2f", appCpuMax));
+            row.put("appMemoryMaxMB", memoryMax);
+            history.add(row);
+        }
+        return history;
+    }
+
+    private List<Map<String, Object>> disks() {
+        List<Map<String, Object>> disks = new ArrayList<>();
+        for (OSFileStore fs : os.getFileSystem().getFileStores()) {
+            Map<String, Object> disk = new HashMap<>();
+            disk.put("name", fs.getMount());
+            disk.put("type", fs.getType());
+            disk.put("total", fs.getTotalSpace() / (1024 * 1024));
+            disk.put("usable", fs.getUsableSpace() / (1024 * 1024));
+            disks.add(disk);
+        }
+        return disks;
+    }
+
+    private List<Map<String, Object>> network() {
+        List<Map<String, Object>> network = new ArrayList<>();
+        for (NetworkIF net : hal.getNetworkIFs()) {
+            net.updateAttributes();
+            Map<String, Object> netInfo = new HashMap<>();
+            netInfo.put("name", net.getName());
+            netInfo.put("mac", net.getMacaddr());
+            netInfo.put("ipv4", Arrays.toString(net.getIPv4addr()));
+            netInfo.put("ipv6", Arrays.toString(net.getIPv6addr()));
+            netInfo.put("rxBytes", net.getBytesRecv());
+            netInfo.put("txBytes", net.getBytesSent());
+            network.add(netInfo);
+        }
+        return network;
+    }
+
+    private Map<String, Long> threadStates() {
+        Map<String, Long> threadStates = new HashMap<>();
+        for (ThreadInfo info : threadBean.dumpAllThreads(false, false)) {
+            String state = info.getThreadState().name();
+            threadStates.put(state, threadStates.getOrDefault(state, 0L) + 1);
+        }
+        return threadStates;
+    }
+
+    private Map<String, Object> cacheStats() {
+        Map<String, Object> cacheStats = new HashMap<>();
+        try {
+            for (String cacheName : cacheManager.getCacheNames()) {
+                var springCache = cacheManager.getCache(cacheName);
+                if (springCache == null) continue;
+
+                if (springCache instanceof TwoTierCache twoTier) {
+                    var stats = twoTier.getStats();
+                    cacheStats.put(cacheName, Map.of(
+                            "hitCount", stats.getLocalHits() + stats.getRemoteHits(),
+                            "localHitCount", stats.getLocalHits(),
+                            "remoteHitCount", stats.getRemoteHits(),
+                            "missCount", stats.getMisses(),
+                            "loadSuccessCount", stats.getPuts(),
+                            "loadFailureCount", 0L,
+                            "evictionCount", stats.getEvictions(),
+                            "hitRate", String.format("%.2f", stats.hitRate() * 100)
+                    ));
+                    continue;
+                }
+                Object nativeObj = springCache.getNativeCache();
+                if (nativeObj instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+                    var stats = nativeCache.stats();
+                    cacheStats.put(cacheName, Map.of(
+                            "hitCount", stats.hitCount(),
+                            "missCount", stats.missCount(),
+                            "loadSuccessCount", stats.loadSuccessCount(),
+                            "loadFailureCount", stats.loadFailureCount(),
+                            "evictionCount", stats.evictionCount(),
+                            "hitRate", String.format("%.2f", stats.hitRate() * 100)
+                    ));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to collect cache stats", e);
+        }
+        return cacheStats;
+    }
+
+    private record Point(long epochMillis, double systemCpu, double appCpu, long appMemoryMB) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.abelini_routing_middleware.health;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One published state of the {@link HealthSampler}, rendered as is by the health page. The maps keep the
+ * keys the page has always used; {@code history} holds the CPU and memory windows.
+ */
+public record HealthSnapshot(Instant sampledAt,
+                             Map<String, Object> system,
+                             Map<String, Object> app,
+                             List<Map<String, Object>> disks,
+                             List<Map<String, Object>> network,
+                             Map<String, Object> cacheStats,
+                             List<Map<String, Object>> history) {
+
+    public long ageMillis() {
+        return Instant.now().toEpochMilli() - sampledAt.toEpochMilli();
+    }
+}
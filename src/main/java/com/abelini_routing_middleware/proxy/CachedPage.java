@@ -0,0 +1,62 @@
+package com.abelini_routing_middleware.proxy;
+
+/**
+ * One upstream page in {@link PageCache}. The body is kept gzip-compressed whenever it is
+ * worth it, with headers stripped of everything that depends on the encoding.
+ */
+final class CachedPage {
+    final int status;
+    // name/value pairs, without Content-Length, Content-Encoding and hop-by-hop headers
+    final String[] headers;
+    final byte[] body;
+    final boolean gzipped;
+    final String etag;
+    // true when etag came from the upstream and can be used to revalidate
+    final boolean upstreamEtag;
+    // the anonymous request headers the page was fetched with, replayed on revalidation
+    final String[] requestHeaders;
+    final long storedAt;
+    final long freshNanos;
+    final long staleNanos;
+
+    CachedPage(int status, String[] headers, byte[] body, boolean gzipped, String etag, boolean upstreamEtag,
+               String[] requestHeaders, long storedAt, long freshNanos, long staleNanos) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.gzipped = gzipped;
+        this.etag = etag;
+        this.upstreamEtag = upstreamEtag;
+        this.requestHeaders = requestHeaders;
+        this.storedAt = storedAt;
+        this.freshNanos = freshNanos;
+        this.staleNanos = staleNanos;
+    }
+
+    boolean isFresh(long now) {
+        return now - storedAt < freshNanos;
+    }
+
+    boolean isServable(long now) {
+        return now - storedAt < freshNanos + staleNanos;
+    }
+
+    long ageSeconds(long now) {
+        return Math.max(0, (now - storedAt) / 1_000_000_000L);
+    }
+
+    /**
+     * The same page, fresh again from {@code now} (the upstream answered 304).
+     */
+    CachedPage renewed(long now) {
+        return new CachedPage(status, headers, body, gzipped, etag, upstreamEtag, requestHeaders, now, freshNanos, staleNanos);
+    }
+
+    int weight() {
+        int weight = body.length + 64;
+        for (String header : headers) {
+            weight += header.length();
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,386 @@
+package com.abelini_routing_middleware.proxy;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Short-lived, in-memory cache of upstream page bodies for anonymous GETs, keyed by the
+ * resolved upstream URL.
+ * <p>
+ * Only {@code 200} responses without {@code Set-Cookie}, without {@code no-store},
+ * {@code no-cache} or {@code private}, and varying on nothing but {@code Accept-Encoding}
+ * are stored. Freshness is the upstream {@code s-maxage}/{@code max-age} capped at
+ * {@code proxy.page-cache.ttl-seconds}; after that a page is served stale for up to the
+ * {@code stale-while-revalidate} window while one background request refreshes it.
+ * Hits answer {@code If-None-Match} with {@code 304}.
+ */
+@Log4j2
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PageCache {
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "content-encoding",
+            "set-cookie", "age", "date", "x-cache");
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final int maxEntryBytes;
+    private final List<String> ignoredCookies = new ArrayList<>();
+    private final List<String> ignoredCookiePrefixes = new ArrayList<>();
+    private final Cache<String, CachedPage> pages;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final ExecutorService revalidator = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PageCache(@Value("${proxy.page-cache.enabled:false}") boolean enabled,
+                     @Value("${proxy.page-cache.ttl-seconds:30}") long ttlSeconds,
+                     @Value("${proxy.page-cache.stale-while-revalidate-seconds:120}") long staleSeconds,
+                     @Value("${proxy.page-cache.max-bytes:67108864}") long maxBytes,
+                     @Value("${proxy.page-cache.max-entry-bytes:1048576}") int maxEntryBytes,
+                     @Value("${proxy.page-cache.ignored-cookies:_ga,_ga_*,_gid,_gat*,_gcl_*,_fbp,_fbc}") String[] ignoredCookies) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.staleNanos = TimeUnit.SECONDS.toNanos(staleSeconds);
+        this.maxEntryBytes = maxEntryBytes;
+        for (String cookie : ignoredCookies) {
+            String name = cookie.trim();
+            if (name.endsWith("*")) {
+                ignoredCookiePrefixes.add(name.substring(0, name.length() - 1));
+            } else if (!name.isEmpty()) {
+                this.ignoredCookies.add(name);
+            }
+        }
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedPage>weigher((key, page) -> page.weight())
+                .expireAfter(new Expiry<String, CachedPage>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedPage page, long currentTime) {
+                        return page.freshNanos + page.staleNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedPage page, long currentTime, long currentDuration) {
+                        return page.freshNanos + page.staleNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedPage page, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Anonymous GETs only: no credentials, and no cookies but the ones in {@code proxy.page-cache.ignored-cookies}
+     * (exact names, or prefixes ending in {@code *}), which the page must not depend on. Any other cookie may carry
+     * state the page is rendered for (session, currency, language), and entries are keyed by URL alone.
+     */
+    public boolean isCacheable(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod()) || request.getHeader("Authorization") != null) {
+            return false;
+        }
+        if (request.getHeader("Cookie") == null) {
+            return true;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            // a Cookie header the container could not parse
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (!isIgnoredCookie(cookie.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isIgnoredCookie(String name) {
+        if (ignoredCookies.contains(name)) {
+            return true;
+        }
+        for (String prefix : ignoredCookiePrefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    CachedPage get(String key) {
+        return pages.getIfPresent(key);
+    }
+
+    void evict(String key) {
+        pages.invalidate(key);
+    }
+
+    public Cache<String, CachedPage> getNativeCache() {
+        return pages;
+    }
+
+    /**
+     * Freshness lifetime for an upstream response in nanoseconds, or {@code -1} when the
+     * response must not be stored.
+     */
+    long freshness(ClassicHttpResponse upstreamResponse) {
+        if (upstreamResponse.getCode() != 200 || upstreamResponse.containsHeader("Set-Cookie")) {
+            return -1;
+        }
+        for (Header vary : upstreamResponse.getHeaders("Vary")) {
+            for (String field : vary.getValue().split(",")) {
+                if (!field.isBlank() && !"accept-encoding".equalsIgnoreCase(field.trim())) {
+                    return -1;
+                }
+            }
+        }
+        Header encoding = upstreamResponse.getFirstHeader("Content-Encoding");
+        if (encoding != null && !"gzip".equalsIgnoreCase(encoding.getValue().trim())) {
+            return -1;
+        }
+        long fresh = ttlNanos;
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (Header cacheControl : upstreamResponse.getHeaders("Cache-Control")) {
+            for (String directive : cacheControl.getValue().toLowerCase(Locale.ROOT).split(",")) {
+                String d = directive.trim();
+                if (d.equals("no-store") || d.equals("no-cache") || d.equals("private")) {
+                    return -1;
+                } else if (d.startsWith("s-maxage=")) {
+                    sharedMaxAge = seconds(d.substring(9));
+                } else if (d.startsWith("max-age=")) {
+                    maxAge = seconds(d.substring(8));
+                }
+            }
+        }
+        long upstreamMaxAge = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+        if (upstreamMaxAge == 0) {
+            return -1;
+        }
+        if (upstreamMaxAge > 0) {
+            fresh = Math.min(fresh, TimeUnit.SECONDS.toNanos(upstreamMaxAge));
+        }
+        return fresh;
+    }
+
+    /**
+     * Collects a copy of a streamed body, giving up past {@code max-entry-bytes}.
+     */
+    BodyCapture capture() {
+        return new BodyCapture(maxEntryBytes);
+    }
+
+    void store(String key, ClassicHttpResponse upstreamResponse, byte[] body, long freshNanos, String[] requestHeaders) {
+        List<String> headers = new ArrayList<>();
+        String etag = null;
+        String contentType = null;
+        for (Header header : upstreamResponse.getHeaders()) {
+            String lowerName = header.getName().toLowerCase(Locale.ROOT);
+            if (UNSTORED_HEADERS.contains(lowerName)) {
+                continue;
+            }
+            if (lowerName.equals("etag")) {
+                etag = header.getValue();
+            } else if (lowerName.equals("content-type")) {
+                contentType = header.getValue();
+            }
+            headers.add(header.getName());
+            headers.add(header.getValue());
+        }
+        boolean gzipped = upstreamResponse.containsHeader("Content-Encoding");
+        if (!gzipped && body.length >= GZIP_MIN_BYTES && isCompressible(contentType)) {
+            body = gzip(body);
+            gzipped = true;
+        }
+        boolean upstreamEtag = etag != null;
+        if (!upstreamEtag) {
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            etag = "W/\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+            headers.add("ETag");
+            headers.add(etag);
+        }
+        pages.put(key, new CachedPage(200, headers.toArray(String[]::new), body, gzipped, etag, upstreamEtag,
+                requestHeaders, System.nanoTime(), freshNanos, staleNanos));
+    }
+
+    void renew(String key, CachedPage page) {
+        pages.put(key, page.renewed(System.nanoTime()));
+    }
+
+    /**
+     * Serves {@code page} if it is still usable, starting a background refresh when it is
+     * stale. Returns {@code false} when the caller must go upstream instead.
+     */
+    boolean serve(String key, CachedPage page, HttpServletRequest request, HttpServletResponse response,
+                  PageRevalidator revalidator) throws IOException {
+        long now = System.nanoTime();
+        boolean fresh = page.isFresh(now);
+        if (!fresh && !page.isServable(now)) {
+            return false;
+        }
+        if (!fresh) {
+            revalidateInBackground(key, page, revalidator);
+        }
+
+        response.setStatus(page.status);
+        for (int i = 0; i < page.headers.length; i += 2) {
+            response.setHeader(page.headers[i], page.headers[i + 1]);
+        }
+        response.setHeader("Age", String.valueOf(page.ageSeconds(now)));
+        response.setHeader("X-Cache", fresh ? "HIT" : "STALE");
+        response.setHeader("Vary", "Accept-Encoding");
+
+        if (etagMatches(request.getHeader("If-None-Match"), page.etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        boolean acceptsGzip = acceptsGzip(request);
+        if (page.gzipped && acceptsGzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            response.setContentLength(page.body.length);
+            response.getOutputStream().write(page.body);
+        } else if (page.gzipped) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(page.body))) {
+                in.transferTo(response.getOutputStream());
+            }
+        } else {
+            response.setContentLength(page.body.length);
+            response.getOutputStream().write(page.body);
+        }
+        return true;
+    }
+
+    private void revalidateInBackground(String key, CachedPage page, PageRevalidator pageRevalidator) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        revalidator.execute(() -> {
+            try {
+                pageRevalidator.revalidate(key, page);
+            } catch (Exception e) {
+                log.warn("Page revalidation failed for {}: {}", key, e.getMessage());
+            } finally {
+                revalidating.remove(key);
+            }
+        });
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = weakless(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || weakless(c).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String weakless(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.contains("json") || type.contains("javascript") || type.contains("xml");
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compress page body", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long seconds(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        revalidator.shutdownNow();
+    }
+
+    /**
+     * Refetches a stale page and stores the result.
+     */
+    @FunctionalInterface
+    interface PageRevalidator {
+        void revalidate(String key, CachedPage stale) throws IOException;
+    }
+
+    static final class BodyCapture {
+        private final int limit;
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+
+        private BodyCapture(int limit) {
+            this.limit = limit;
+        }
+
+        void write(byte[] buffer, int offset, int length) {
+            if (bytes == null) {
+                return;
+            }
+            if (bytes.size() + length > limit) {
+                bytes = null;
+                return;
+            }
+            bytes.write(buffer, offset, length);
+        }
+
+        // null when the body was too large to keep
+        byte[] toByteArray() {
+            return bytes == null ? null : bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.abelini_routing_middleware.proxy;
+
+import com.abelini_routing_middleware.config.AccessLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwards resolved requests to the PHP upstream over a bounded pool of keep-alive
+ * connections, so the proxy path pays for TCP and TLS setup once per connection rather
+ * than once per request. Request and response bodies are streamed, never buffered.
+ * <p>
+ * Pool usage is published as the {@code httpcomponents.httpclient.pool.*} meters,
+ * tagged {@code httpclient=upstream}. Anonymous GETs may be answered from {@link PageCache}.
+ */
+@Log4j2
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UpstreamClient {
+    // hop-by-hop headers, plus the ones the client computes itself
+    private static final Set<String> SKIPPED_REQUEST_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "host", "upgrade", "te");
+    private static final Set<String> REPLAYED_REQUEST_HEADERS = Set.of("accept", "accept-language", "accept-encoding");
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding");
+
+    private static final String CONNECT_START = "upstream.connect.start";
+
+    private final PageCache pageCache;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final RequestConfig defaultRequestConfig;
+    private final Map<String, RequestConfig> routeRequestConfigs = new LinkedHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${proxy.upstream.base-url:}")
+    private String baseUrl;
+
+    public UpstreamClient(MeterRegistry meterRegistry, PageCache pageCache,
+                          @Value("${proxy.upstream.max-connections:200}") int maxConnections,
+                          @Value("${proxy.upstream.max-connections-per-route:100}") int maxConnectionsPerRoute,
+                          @Value("${proxy.upstream.connect-timeout-ms:7000}") long connectTimeoutMs,
+                          @Value("${proxy.upstream.response-timeout-ms:60000}") long responseTimeoutMs,
+                          @Value("${proxy.upstream.pool-timeout-ms:2000}") long poolTimeoutMs,
+                          @Value("${proxy.upstream.idle-timeout-seconds:30}") long idleTimeoutSeconds,
+                          @Value("${proxy.upstream.connection-ttl-seconds:300}") long connectionTtlSeconds,
+                          @Value("${proxy.upstream.route-timeouts:}") String[] routeTimeouts) {
+        this.meterRegistry = meterRegistry;
+        this.pageCache = pageCache;
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.LAX)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .setTimeToLive(TimeValue.ofSeconds(connectionTtlSeconds))
+                        .build())
+                .build();
+        this.defaultRequestConfig = requestConfig(poolTimeoutMs, responseTimeoutMs);
+        for (String routeTimeout : routeTimeouts) {
+            // "<path prefix>=<response timeout ms>", first matching prefix wins
+            String[] parts = routeTimeout.trim().split("=", 2);
+            if (parts.length == 2) {
+                routeRequestConfigs.put(parts[0].trim(), requestConfig(poolTimeoutMs, Long.parseLong(parts[1].trim())));
+            }
+        }
+        // a shared client must never carry cookies, credentials or decoded bodies between users
+        this.client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(defaultRequestConfig)
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .disableAuthCaching()
+                .disableContentCompression()
+                .disableConnectionState()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleTimeoutSeconds))
+                .addExecInterceptorBefore(ChainElement.CONNECT.name(), "connect-start", connectStart())
+                .addExecInterceptorBefore(ChainElement.MAIN_TRANSPORT.name(), "transport-timer", transportTimer())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "upstream").bindTo(meterRegistry);
+    }
+
+    /**
+     * Base URL of the upstream for this request: {@code proxy.upstream.base-url} when
+     * set, otherwise the host the request came in on.
+     */
+    public String baseUrl(HttpServletRequest request) {
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            return baseUrl;
+        }
+        int port = request.getServerPort();
+        return "https://" + request.getServerName() + (port == 80 || port == 443 ? "" : ":" + port);
+    }
+
+    /**
+     * Sends {@code request} to {@code targetUrl} and streams the upstream status, headers
+     * and body back into {@code response}. Redirects are passed through, not followed.
+     */
+    public void forward(HttpServletRequest request, HttpServletResponse response, String targetUrl) throws IOException {
+        boolean cacheable = pageCache.isCacheable(request);
+        if (cacheable) {
+            CachedPage page = pageCache.get(targetUrl);
+            if (page != null && pageCache.serve(targetUrl, page, request, response, this::revalidate)) {
+                return;
+            }
+        }
+
+        URI target = URI.create(targetUrl);
+        HttpUriRequestBase upstreamRequest = new HttpUriRequestBase(request.getMethod(), target);
+        upstreamRequest.setConfig(requestConfigFor(target.getPath()));
+
+        // a cacheable page is always fetched gzip-or-identity, so any client can be served from the copy
+        boolean normalizeEncoding = cacheable && PageCache.acceptsGzip(request);
+        Enumeration<String> headerNames = request.getHeaderNames();
+        while (headerNames.hasMoreElements()) {
+            String headerName = headerNames.nextElement();
+            String lowerName = headerName.toLowerCase();
+            if (SKIPPED_REQUEST_HEADERS.contains(lowerName) || normalizeEncoding && lowerName.equals("accept-encoding")) {
+                continue;
+            }
+            Enumeration<String> values = request.getHeaders(headerName);
+            while (values.hasMoreElements()) {
+                upstreamRequest.addHeader(headerName, values.nextElement());
+            }
+        }
+        if (normalizeEncoding) {
+            upstreamRequest.addHeader("Accept-Encoding", "gzip");
+        }
+        String cacheKey = cacheable ? targetUrl : null;
+
+        String method = request.getMethod();
+        if ("POST".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method) || "PATCH".equalsIgnoreCase(method)) {
+            // content type travels with the copied headers
+            upstreamRequest.setEntity(new InputStreamEntity(request.getInputStream(), request.getContentLengthLong(), null));
+        }
+
+        long start = System.nanoTime();
+        try {
+            client.execute(upstreamRequest, upstreamResponse -> {
+                request.setAttribute(AccessLog.UPSTREAM_NANOS_ATTRIBUTE, System.nanoTime() - start);
+                copyResponse(upstreamResponse, response, cacheKey, upstreamRequest);
+                return null;
+            });
+        } catch (IOException e) {
+            log.error("Error while proxying the response", e);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error while processing request.");
+            }
+        }
+    }
+
+    /**
+     * Marks the start of the connect stage, before a pooled connection is leased or opened.
+     */
+    private static ExecChainHandler connectStart() {
+        return (request, scope, chain) -> {
+            scope.clientContext.setAttribute(CONNECT_START, System.nanoTime());
+            return chain.proceed(request, scope);
+        };
+    }
+
+    /**
+     * Records {@code proxy.upstream.connect} (pool lease plus connect, zero for a reused
+     * connection) and {@code proxy.upstream.ttfb}, request sent to response head received.
+     */
+    private ExecChainHandler transportTimer() {
+        return (ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain) -> {
+            long start = System.nanoTime();
+            if (scope.clientContext.getAttribute(CONNECT_START) instanceof Long connectStart) {
+                meterRegistry.timer("proxy.upstream.connect").record(start - connectStart, TimeUnit.NANOSECONDS);
+            }
+            String status = "IO_ERROR";
+            try {
+                ClassicHttpResponse upstreamResponse = chain.proceed(request, scope);
+                status = upstreamResponse.getCode() / 100 + "xx";
+                return upstreamResponse;
+            } finally {
+                meterRegistry.timer("proxy.upstream.ttfb", "status", status).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    /**
+     * Copies the upstream head and body into {@code response}, timed as {@code proxy.upstream.body}.
+     */
+    private void copyResponse(ClassicHttpResponse upstreamResponse, HttpServletResponse response,
+                              String cacheKey, HttpUriRequestBase upstreamRequest) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            writeResponse(upstreamResponse, response, cacheKey, upstreamRequest);
+        } finally {
+            sample.stop(meterRegistry.timer("proxy.upstream.body", "cached", String.valueOf(cacheKey != null)));
+        }
+    }
+
+    private void writeResponse(ClassicHttpResponse upstreamResponse, HttpServletResponse response,
+                               String cacheKey, HttpUriRequestBase upstreamRequest) throws IOException {
+        long freshNanos = cacheKey != null ? pageCache.freshness(upstreamResponse) : -1;
+        int status = upstreamResponse.getCode();
+        log.debug("status :{}", status);
+        response.setStatus(status);
+
+        Set<String> seen = new HashSet<>();
+        for (Header header : upstreamResponse.getHeaders()) {
+            String name = header.getName();
+            String lowerName = name.toLowerCase();
+            if (SKIPPED_RESPONSE_HEADERS.contains(lowerName)) {
+                continue;
+            }
+            log.debug("Header inside proxy ::: {} ::: {}", name, header.getValue());
+            // first value replaces anything set during resolution, later ones (Set-Cookie) are kept too
+            if (seen.add(lowerName)) {
+                response.setHeader(name, header.getValue());
+            } else {
+                response.addHeader(name, header.getValue());
+            }
+        }
+
+        HttpEntity entity = upstreamResponse.getEntity();
+        if (entity == null) {
+            log.warn("Proxy InputStream is null for status code: {}", status);
+            return;
+        }
+        ServletOutputStream out = response.getOutputStream();
+        if (freshNanos < 0) {
+            entity.writeTo(out);
+            out.flush();
+            return;
+        }
+
+        // stream to the client as usual, keeping a copy for the page cache
+        response.setHeader("X-Cache", "MISS");
+        PageCache.BodyCapture capture = pageCache.capture();
+        try (InputStream in = entity.getContent()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                capture.write(buffer, 0, read);
+            }
+        }
+        out.flush();
+        byte[] body = capture.toByteArray();
+        if (body != null) {
+            pageCache.store(cacheKey, upstreamResponse, body, freshNanos, headerPairs(upstreamRequest.getHeaders()));
+        }
+    }
+
+    /**
+     * Background refresh of a stale page, with the content negotiation headers it was first fetched with.
+     */
+    private void revalidate(String key, CachedPage stale) throws IOException {
+        URI target = URI.create(key);
+        HttpUriRequestBase upstreamRequest = new HttpUriRequestBase("GET", target);
+        upstreamRequest.setConfig(requestConfigFor(target.getPath()));
+        for (int i = 0; i < stale.requestHeaders.length; i += 2) {
+            upstreamRequest.addHeader(stale.requestHeaders[i], stale.requestHeaders[i + 1]);
+        }
+        if (stale.upstreamEtag) {
+            upstreamRequest.setHeader("If-None-Match", stale.etag);
+        }
+        client.execute(upstreamRequest, upstreamResponse -> {
+            if (upstreamResponse.getCode() == HttpServletResponse.SC_NOT_MODIFIED) {
+                pageCache.renew(key, stale);
+                return null;
+            }
+            long freshNanos = pageCache.freshness(upstreamResponse);
+            HttpEntity entity = upstreamResponse.getEntity();
+            if (freshNanos < 0 || entity == null) {
+                pageCache.evict(key);
+                return null;
+            }
+            PageCache.BodyCapture capture = pageCache.capture();
+            try (InputStream in = entity.getContent()) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    capture.write(buffer, 0, read);
+                }
+            }
+            byte[] body = capture.toByteArray();
+            if (body != null) {
+                pageCache.store(key, upstreamResponse, body, freshNanos, stale.requestHeaders);
+            } else {
+                pageCache.evict(key);
+            }
+            return null;
+        });
+    }
+
+    // revalidations run on behalf of every reader of the page, so nothing personal (cookies, client address,
+    // validators) is replayed; Accept-Encoding is the normalized one
+    private static String[] headerPairs(Header[] headers) {
+        List<String> pairs = new ArrayList<>(6);
+        for (Header header : headers) {
+            if (REPLAYED_REQUEST_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                pairs.add(header.getName());
+                pairs.add(header.getValue());
+            }
+        }
+        return pairs.toArray(String[]::new);
+    }
+
+    private RequestConfig requestConfigFor(String path) {
+        if (path != null) {
+            for (Map.Entry<String, RequestConfig> route : routeRequestConfigs.entrySet()) {
+                if (path.startsWith(route.getKey())) {
+                    return route.getValue();
+                }
+            }
+        }
+        return defaultRequestConfig;
+    }
+
+    private static RequestConfig requestConfig(long poolTimeoutMs, long responseTimeoutMs) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                .setRedirectsEnabled(false)
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        client.close(CloseMode.GRACEFUL);
+    }
+}
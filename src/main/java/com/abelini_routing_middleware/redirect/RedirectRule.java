@@ -0,0 +1,39 @@
+package com.abelini_routing_middleware.redirect;
+
+import java.util.Locale;
+
+/**
+ * One legacy URL redirect.
+ *
+ * @param type   how {@code source} is matched against the request path
+ * @param source the old path (exact and prefix rules) or a regular expression (pattern rules)
+ * @param target the new location; for prefix rules the rest of the path is appended, for
+ *               pattern rules it is the replacement for the first match and may use {@code $1}
+ * @param status 301, 302, 303, 307 or 308
+ */
+public record RedirectRule(Type type, String source, String target, int status) {
+
+    public enum Type {
+        EXACT, PREFIX, PATTERN;
+
+        public static Type of(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public RedirectRule {
+        if (type == null || source == null || source.isBlank() || target == null || target.isBlank()) {
+            throw new IllegalArgumentException("Redirect rule needs a type, source and target");
+        }
+        if (status != 301 && status != 302 && status != 303 && status != 307 && status != 308) {
+            throw new IllegalArgumentException("Unsupported redirect status " + status + " for " + source);
+        }
+    }
+
+    /**
+     * Identifies the rule across reloads, so its hit counter survives a refresh.
+     */
+    String id() {
+        return type + " " + (type == Type.PATTERN ? source : RedirectTable.normalize(source));
+    }
+}
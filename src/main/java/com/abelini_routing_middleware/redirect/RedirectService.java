@@ -0,0 +1,177 @@
+package com.abelini_routing_middleware.redirect;
+
+import com.abelini_routing_middleware.routing.RoutingRequest;
+import com.abelini_routing_middleware.routing.RoutingResolution;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Legacy URL redirects, checked before any SEO resolution. Rules are bulk loaded from
+ * {@code redirect.rules.location} (CSV lines of {@code type,source,target[,status]}) and,
+ * when {@code redirect.rules.erp-url} is set, from the ERP as a JSON array of objects with
+ * the same fields; ERP rules replace file rules with the same type and source.
+ * <p>
+ * Both sources are re-read every {@code redirect.rules.refresh-interval-ms}. A refresh that
+ * fails on either source keeps the current table, so a flaky ERP never drops its rules.
+ * Every lookup is timed as {@code routing.redirect.match}, tagged {@code redirect} or {@code none}.
+ */
+@Log4j2
+@Service
+public class RedirectService {
+    private final ObjectMapper objectMapper;
+    private final Resource location;
+    private final String erpUrl;
+    private final String jwtToken;
+    private final int defaultStatus;
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final AtomicReference<RedirectTable> table = new AtomicReference<>(RedirectTable.empty());
+
+    public RedirectService(ObjectMapper objectMapper, ResourceLoader resourceLoader, MeterRegistry meterRegistry,
+                           @Value("${redirect.rules.enabled:true}") boolean enabled,
+                           @Value("${redirect.rules.location:classpath:redirects.csv}") String location,
+                           @Value("${redirect.rules.erp-url:}") String erpUrl,
+                           @Value("${redirect.rules.default-status:301}") int defaultStatus,
+                           @Value("${abelini_jwt_token}") String jwtToken) throws IOException {
+        this.objectMapper = objectMapper;
+        this.location = resourceLoader.getResource(location);
+        this.erpUrl = erpUrl;
+        this.jwtToken = jwtToken;
+        this.defaultStatus = defaultStatus;
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+        if (enabled) {
+            // the file must be valid to start; the ERP rules follow with the first refresh
+            table.set(RedirectTable.compile(fileRules(), null));
+            log.info("Redirect rules loaded from {}: {}", location, table.get().size());
+        }
+    }
+
+    /**
+     * The redirect for {@code request}, or {@code null} when no rule applies. The request's
+     * query string is carried over to the new location.
+     */
+    public RoutingResolution match(RoutingRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        String path = request.getRequestUri().replace("/routing-value", "");
+        if (path.startsWith("/internal")) {
+            return null;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        RedirectTable.Match match = table.get().match(path);
+        sample.stop(meterRegistry.timer("routing.redirect.match", "outcome", match != null ? "redirect" : "none"));
+        if (match == null) {
+            return null;
+        }
+        String location = match.location();
+        String query = request.getQueryString();
+        if (query != null && !query.isEmpty()) {
+            location += (location.contains("?") ? "&" : "?") + query;
+        }
+        log.debug("redirect {} -> {} ({})", path, location, match.rule().status());
+        return RoutingResolution.builder().redirect(match.rule().status(), location);
+    }
+
+    public RedirectTable current() {
+        return table.get();
+    }
+
+    @Scheduled(fixedDelayString = "${redirect.rules.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    public boolean reload() {
+        try {
+            List<RedirectRule> rules = fileRules();
+            if (erpUrl != null && !erpUrl.isBlank()) {
+                rules.addAll(erpRules());
+            }
+            RedirectTable previous = table.get();
+            RedirectTable fresh = RedirectTable.compile(rules, previous);
+            table.set(fresh);
+            if (fresh.size() != previous.size()) {
+                log.info("Redirect rules reloaded: {}", fresh.size());
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Redirect rules reload failed, keeping the current {} rules: {}", table.get().size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private List<RedirectRule> fileRules() throws IOException {
+        List<RedirectRule> rules = new ArrayList<>();
+        if (!location.exists()) {
+            log.warn("No redirect rules at {}", location);
+            return rules;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(location.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length < 3 || fields.length > 4) {
+                    throw new IOException("Redirect rule at line " + number + " needs 3 or 4 fields: " + line);
+                }
+                try {
+                    int status = fields.length == 4 && !fields[3].isBlank() ? Integer.parseInt(fields[3].strip()) : defaultStatus;
+                    rules.add(new RedirectRule(RedirectRule.Type.of(fields[0]), fields[1].strip(), fields[2].strip(), status));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid redirect rule at line " + number + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return rules;
+    }
+
+    private List<RedirectRule> erpRules() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(erpUrl))
+                .header("Authorization", jwtToken)
+                .timeout(Duration.ofMinutes(2))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Redirect rules export failed with status " + response.statusCode());
+        }
+        List<RedirectRule> rules = new ArrayList<>();
+        for (JsonNode rule : objectMapper.readTree(response.body())) {
+            rules.add(new RedirectRule(RedirectRule.Type.of(rule.path("type").asText("exact")), rule.path("source").asText(),
+                    rule.path("target").asText(), rule.path("status").asInt(defaultStatus)));
+        }
+        return rules;
+    }
+}
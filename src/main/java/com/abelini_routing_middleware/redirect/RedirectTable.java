@@ -0,0 +1,174 @@
+package com.abelini_routing_middleware.redirect;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, compiled set of {@link RedirectRule}s. Exact and prefix sources are kept in
+ * sorted arrays and found by binary search, so tens of thousands of rules cost a few
+ * strings each and a lookup is logarithmic; pattern rules are tried in order afterwards
+ * and should stay few. Exact rules win over prefix rules, and the longest prefix wins.
+ * <p>
+ * Sources are matched case-insensitively and without a trailing slash. Each rule has a
+ * hit counter, carried over from the previous table on reload.
+ */
+public final class RedirectTable {
+    private static final RedirectTable EMPTY = compile(List.of(), null);
+
+    private final String[] exactSources;
+    private final int[] exactRules;
+    private final String[] prefixSources;
+    private final int[] prefixRules;
+    private final Pattern[] patterns;
+    private final int[] patternRules;
+    private final RedirectRule[] rules;
+    private final AtomicLongArray hits;
+
+    private RedirectTable(String[] exactSources, int[] exactRules, String[] prefixSources, int[] prefixRules,
+                          Pattern[] patterns, int[] patternRules, RedirectRule[] rules) {
+        this.exactSources = exactSources;
+        this.exactRules = exactRules;
+        this.prefixSources = prefixSources;
+        this.prefixRules = prefixRules;
+        this.patterns = patterns;
+        this.patternRules = patternRules;
+        this.rules = rules;
+        this.hits = new AtomicLongArray(rules.length);
+    }
+
+    /**
+     * A redirect the table decided on.
+     *
+     * @param location the new path, without the request's query string
+     */
+    public record Match(RedirectRule rule, String location) {
+    }
+
+    public static RedirectTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param rules    later rules replace earlier ones with the same type and source
+     * @param previous table whose hit counters are carried over, or {@code null}
+     */
+    public static RedirectTable compile(Collection<RedirectRule> rules, RedirectTable previous) {
+        Map<String, RedirectRule> byId = new LinkedHashMap<>();
+        for (RedirectRule rule : rules) {
+            byId.remove(rule.id());
+            byId.put(rule.id(), rule);
+        }
+        RedirectRule[] all = byId.values().toArray(RedirectRule[]::new);
+
+        TreeMap<String, Integer> exact = new TreeMap<>();
+        TreeMap<String, Integer> prefix = new TreeMap<>();
+        List<Pattern> patterns = new ArrayList<>();
+        List<Integer> patternRules = new ArrayList<>();
+        for (int i = 0; i < all.length; i++) {
+            RedirectRule rule = all[i];
+            switch (rule.type()) {
+                case EXACT -> exact.put(normalize(rule.source()), i);
+                case PREFIX -> prefix.put(normalize(rule.source()), i);
+                case PATTERN -> {
+                    patterns.add(Pattern.compile(rule.source()));
+                    patternRules.add(i);
+                }
+            }
+        }
+
+        RedirectTable table = new RedirectTable(
+                exact.keySet().toArray(String[]::new), exact.values().stream().mapToInt(Integer::intValue).toArray(),
+                prefix.keySet().toArray(String[]::new), prefix.values().stream().mapToInt(Integer::intValue).toArray(),
+                patterns.toArray(Pattern[]::new), patternRules.stream().mapToInt(Integer::intValue).toArray(), all);
+        if (previous != null && previous.rules.length > 0) {
+            Map<String, Integer> previousIndex = new HashMap<>(previous.rules.length * 2);
+            for (int i = 0; i < previous.rules.length; i++) {
+                previousIndex.put(previous.rules[i].id(), i);
+            }
+            for (int i = 0; i < all.length; i++) {
+                Integer old = previousIndex.get(all[i].id());
+                if (old != null) {
+                    table.hits.set(i, previous.hits.get(old));
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * The redirect for {@code path}, counting a hit on the rule, or {@code null} when no
+     * rule applies.
+     */
+    public Match match(String path) {
+        if (rules.length == 0 || path == null || path.isEmpty()) {
+            return null;
+        }
+        String normalized = normalize(path);
+
+        int found = Arrays.binarySearch(exactSources, normalized);
+        if (found >= 0) {
+            return hit(exactRules[found], rules[exactRules[found]].target());
+        }
+
+        if (prefixSources.length > 0) {
+            String lower = path.toLowerCase(Locale.ROOT);
+            // lower-casing leaves ASCII paths the same length, so the rest keeps its original case
+            String cased = lower.length() == path.length() ? path : lower;
+            // the path itself, then each shorter prefix ending at a segment boundary
+            for (int end = normalized.length(); end > 0; end = normalized.lastIndexOf('/', end - 1)) {
+                found = Arrays.binarySearch(prefixSources, normalized.substring(0, end));
+                if (found >= 0) {
+                    int rule = prefixRules[found];
+                    String rest = cased.substring(end);
+                    if (rest.equals("/")) {
+                        rest = "";
+                    }
+                    return hit(rule, join(rules[rule].target(), rest));
+                }
+            }
+        }
+
+        for (int i = 0; i < patterns.length; i++) {
+            Matcher matcher = patterns[i].matcher(path);
+            if (matcher.find()) {
+                return hit(patternRules[i], matcher.replaceFirst(rules[patternRules[i]].target()));
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    public RedirectRule rule(int index) {
+        return rules[index];
+    }
+
+    public long hits(int index) {
+        return hits.get(index);
+    }
+
+    private Match hit(int rule, String location) {
+        hits.incrementAndGet(rule);
+        return new Match(rules[rule], location);
+    }
+
+    private static String join(String target, String rest) {
+        if (rest.isEmpty()) {
+            return target;
+        }
+        return target.endsWith("/") ? target + rest.substring(1) : target + rest;
+    }
+
+    static String normalize(String path) {
+        String normalized = path.toLowerCase(Locale.ROOT);
+        int end = normalized.length();
+        while (end > 1 && normalized.charAt(end - 1) == '/') {
+            end--;
+        }
+        return end == normalized.length() ? normalized : normalized.substring(0, end);
+    }
+}
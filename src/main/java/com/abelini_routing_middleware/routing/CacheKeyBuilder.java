@@ -0,0 +1,139 @@
+package com.abelini_routing_middleware.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Brings a request into the one form its {@code seoToQuery} entry is resolved and cached under, so URLs
+ * that only differ in ways the resolution does not depend on share an entry:
+ * <ul>
+ *     <li>parameters are ordered by name (repeated names keep their relative order);</li>
+ *     <li>{@code cache.key.ignored-params} (exact names, or prefixes ending in {@code *}) are left out of the
+ *     key and resolution, and appended to the target afterwards, so they still reach the page;</li>
+ *     <li>{@code filter_param} tokens are de-duplicated and sorted;</li>
+ *     <li>scheme and host are lower-cased, or replaced by {@code cache.key.canonical-origin} when set, for
+ *     sites served on several hosts.</li>
+ * </ul>
+ * How many keys were rewritten is counted in {@code cache.key.canonical}; compare with the
+ * {@code seoToQuery} hit ratio.
+ */
+@Component
+public class CacheKeyBuilder {
+    private static final Comparator<String[]> BY_NAME = Comparator.comparing(param -> param[0]);
+
+    private final List<String> ignoredNames = new ArrayList<>();
+    private final List<String> ignoredPrefixes = new ArrayList<>();
+    private final String canonicalOrigin;
+    private final Counter rewritten;
+    private final Counter unchanged;
+
+    public CacheKeyBuilder(MeterRegistry meterRegistry,
+                           @Value("${cache.key.ignored-params:utm_*,gclid,gbraid,wbraid,fbclid,msclkid,_ga,_gl,mc_cid,mc_eid}") String[] ignoredParams,
+                           @Value("${cache.key.canonical-origin:}") String canonicalOrigin) {
+        for (String param : ignoredParams) {
+            String name = param.trim();
+            if (name.endsWith("*")) {
+                ignoredPrefixes.add(name.substring(0, name.length() - 1));
+            } else if (!name.isEmpty()) {
+                ignoredNames.add(name);
+            }
+        }
+        this.canonicalOrigin = canonicalOrigin.endsWith("/") ? canonicalOrigin.substring(0, canonicalOrigin.length() - 1) : canonicalOrigin;
+        this.rewritten = meterRegistry.counter("cache.key.canonical", "rewritten", "true");
+        this.unchanged = meterRegistry.counter("cache.key.canonical", "rewritten", "false");
+    }
+
+    /**
+     * {@code request} in canonical form, carrying the ignored parameters as its pass-through query.
+     */
+    public RoutingRequest canonical(RoutingRequest request) {
+        String requestUrl = canonicalUrl(request.getRequestUrl());
+        String query = request.getQueryString();
+        String canonicalQuery = null;
+        String passThrough = null;
+        if (query != null && !query.isEmpty()) {
+            List<String[]> kept = new ArrayList<>();
+            StringBuilder ignored = new StringBuilder();
+            UrlTokenizer.forEachParam(query, (name, value) -> {
+                if (ignored(name)) {
+                    append(ignored, name, value);
+                } else {
+                    kept.add(new String[]{name, "filter_param".equals(name) ? sortedTokens(value) : value});
+                }
+            });
+            kept.sort(BY_NAME);
+            StringBuilder keyQuery = new StringBuilder(query.length());
+            for (String[] param : kept) {
+                append(keyQuery, param[0], param[1]);
+            }
+            canonicalQuery = keyQuery.isEmpty() ? null : keyQuery.toString();
+            passThrough = ignored.isEmpty() ? null : ignored.toString();
+        }
+        boolean same = requestUrl.equals(request.getRequestUrl()) && (query == null || query.isEmpty()
+                ? canonicalQuery == null : query.equals(canonicalQuery));
+        (same ? unchanged : rewritten).increment();
+        if (same && passThrough == null) {
+            return request;
+        }
+        return new RoutingRequest(request.getRequestUri(), requestUrl, canonicalQuery, passThrough);
+    }
+
+    /**
+     * The canonical form of a cache key (a full URL with its query), as used by purges.
+     */
+    public String canonicalKey(String cacheKey) {
+        return canonical(RoutingRequest.fromCacheKey(cacheKey)).cacheKey();
+    }
+
+    private String canonicalUrl(String requestUrl) {
+        int pathStart = requestUrl.indexOf('/', requestUrl.indexOf("://") + 3);
+        if (pathStart < 0) {
+            pathStart = requestUrl.length();
+        }
+        if (!canonicalOrigin.isEmpty()) {
+            return canonicalOrigin + requestUrl.substring(pathStart);
+        }
+        String origin = requestUrl.substring(0, pathStart);
+        String lower = origin.toLowerCase(Locale.ROOT);
+        return lower.equals(origin) ? requestUrl : lower + requestUrl.substring(pathStart);
+    }
+
+    private boolean ignored(String name) {
+        if (ignoredNames.contains(name)) {
+            return true;
+        }
+        for (String prefix : ignoredPrefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sortedTokens(String value) {
+        if (value == null) {
+            return null;
+        }
+        TreeSet<String> tokens = new TreeSet<>();
+        UrlTokenizer.forEachToken(value, '_', tokens::add);
+        return String.join("_", tokens);
+    }
+
+    private static void append(StringBuilder query, String name, String value) {
+        if (!query.isEmpty()) {
+            query.append('&');
+        }
+        query.append(name);
+        if (value != null) {
+            query.append('=').append(value);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.abelini_routing_middleware.routing;
+
+import com.abelini_routing_middleware.cache.HotKeyTracker;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-resolves the {@link HotKeyTracker hot keys} through the cached resolver, so a new node or a purged cache
+ * does not send every popular URL to the ERP at once. Resolutions start at most
+ * {@code cache.warmup.rate-per-second}, {@code cache.warmup.concurrency} at a time; keys that are still
+ * cached cost a cache read.
+ * <p>
+ * At startup the warm-up runs before the application reports ready, for up to
+ * {@code cache.warmup.startup-wait-ms}; whatever is left then finishes in the background. After a full purge
+ * it runs in the background only.
+ */
+@Log4j2
+@Component
+public class CacheWarmer implements ApplicationRunner {
+    private final SeoRoutingResolver seoRoutingResolver;
+    private final HotKeyTracker hotKeyTracker;
+    private final boolean enabled;
+    private final double ratePerSecond;
+    private final int concurrency;
+    private final long startupWaitMs;
+    private final ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CacheWarmer(SeoRoutingResolver seoRoutingResolver, HotKeyTracker hotKeyTracker,
+                       @Value("${cache.warmup.enabled:true}") boolean enabled,
+                       @Value("${cache.warmup.rate-per-second:50}") double ratePerSecond,
+                       @Value("${cache.warmup.concurrency:4}") int concurrency,
+                       @Value("${cache.warmup.startup-wait-ms:60000}") long startupWaitMs) {
+        this.seoRoutingResolver = seoRoutingResolver;
+        this.hotKeyTracker = hotKeyTracker;
+        this.enabled = enabled;
+        this.ratePerSecond = ratePerSecond;
+        this.concurrency = concurrency;
+        this.startupWaitMs = startupWaitMs;
+        // one pacing thread plus the resolving workers
+        this.workers = Executors.newFixedThreadPool(concurrency + 1, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        CompletableFuture<Void> warmup = warmAsync("startup");
+        try {
+            warmup.get(startupWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.info("Cache warm-up still running after {} ms, continuing in the background", startupWaitMs);
+        }
+    }
+
+    /**
+     * Starts a warm-up unless one is already running; completes when it has finished.
+     */
+    public CompletableFuture<Void> warmAsync(String reason) {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                warm(hotKeyTracker.hotKeys(), reason);
+            } finally {
+                running.set(false);
+            }
+        }, workers);
+    }
+
+    private void warm(List<String> keys, String reason) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long next = start;
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger failures = new AtomicInteger();
+        for (String key : keys) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            next += intervalNanos;
+            inFlight.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    seoRoutingResolver.resolve(RoutingRequest.fromCacheKey(key));
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                    log.debug("Cache warm-up of {} failed: {}", key, e.getMessage());
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquireUninterruptibly(concurrency);
+        log.info("Cache warm-up ({}) resolved {} keys in {} ms, {} failed", reason, keys.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failures.get());
+    }
+
+    @PreDestroy
+    public void close() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,235 @@
+package com.abelini_routing_middleware.routing;
+
+import com.abelini_routing_middleware.cache.CacheEntryTtl;
+import com.abelini_routing_middleware.cache.CacheGenerations;
+import com.abelini_routing_middleware.cache.HotKeyTracker;
+import com.abelini_routing_middleware.cache.RoutingResolutionRedisSerializer;
+import com.abelini_routing_middleware.redirect.RedirectService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@code seoToQuery} cache path of {@link SeoRoutingResolver#resolve} without blocking:
+ * the node's near-cache, then the shared Redis entry read through Lettuce's reactive API,
+ * then {@link SeoRoutingResolver#resolveAsync}. Entries are read and written in exactly the
+ * format the servlet mode uses, so both modes can share one Redis.
+ * <p>
+ * Misses are single-flight as in servlet mode: concurrent callers on this node share one
+ * load, and across nodes the same short Redis lease ({@code lock:seoToQuery::<key>}, taken
+ * with a reactive {@code SET NX PX}) lets one node resolve while the others poll Redis for
+ * its entry, on timers rather than threads. A waiter takes the lease over when it is gone
+ * without an entry (the load failed), and resolves the URL itself once
+ * {@code cache.single-flight.lease-ms} has passed.
+ */
+@Log4j2
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRoutingService {
+    private static final String CACHE_NAME = "seoToQuery";
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final SeoRoutingResolver seoRoutingResolver;
+    private final RedirectService redirectService;
+    private final CacheEntryTtl cacheEntryTtl;
+    private final MeterRegistry meterRegistry;
+    private final HotKeyTracker hotKeyTracker;
+    private final CacheKeyBuilder cacheKeyBuilder;
+    private final CacheGenerations cacheGenerations;
+    private final RefreshAhead refreshAhead;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private final ReactiveRedisTemplate<String, RoutingResolution> redis;
+    private final ReactiveStringRedisTemplate leases;
+    private final Duration leaseDuration;
+    private final Duration leasePollInterval;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, CompletableFuture<RoutingResolution>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public ReactiveRoutingService(SeoRoutingResolver seoRoutingResolver, RedirectService redirectService, CacheManager cacheManager,
+                                  CacheEntryTtl cacheEntryTtl, ReactiveRedisConnectionFactory connectionFactory,
+                                  MeterRegistry meterRegistry, HotKeyTracker hotKeyTracker, CacheKeyBuilder cacheKeyBuilder,
+                                  CacheGenerations cacheGenerations, RefreshAhead refreshAhead,
+                                  @Value("${cache.single-flight.lease-ms:5000}") long leaseMs,
+                                  @Value("${cache.single-flight.poll-ms:50}") long leasePollMs) {
+        this.seoRoutingResolver = seoRoutingResolver;
+        this.redirectService = redirectService;
+        this.cacheEntryTtl = cacheEntryTtl;
+        this.meterRegistry = meterRegistry;
+        this.hotKeyTracker = hotKeyTracker;
+        this.cacheKeyBuilder = cacheKeyBuilder;
+        this.cacheGenerations = cacheGenerations;
+        this.refreshAhead = refreshAhead;
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        this.local = cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine
+                ? (com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine
+                : null;
+        this.redis = new ReactiveRedisTemplate<>(connectionFactory,
+                RedisSerializationContext.<String, RoutingResolution>newSerializationContext(StringRedisSerializer.UTF_8)
+                        .value(new RoutingResolutionRedisSerializer())
+                        .build());
+        this.leases = new ReactiveStringRedisTemplate(connectionFactory);
+        this.leaseDuration = Duration.ofMillis(leaseMs);
+        this.leasePollInterval = Duration.ofMillis(leasePollMs);
+    }
+
+    /**
+     * Cached resolution of {@code incoming}, after the legacy redirects. When the ERP was unavailable the best-effort
+     * resolution is emitted without being cached, as in servlet mode. Entries are kept under the
+     * {@link CacheKeyBuilder canonical} request.
+     */
+    public Mono<RoutingResolution> resolve(RoutingRequest incoming) {
+        RoutingResolution redirect = redirectService.match(incoming);
+        if (redirect != null) {
+            return Mono.just(count(null, redirect, "rule"));
+        }
+        RoutingRequest request = cacheKeyBuilder.canonical(incoming);
+        String passThrough = request.getPassThroughQuery();
+        String key = request.cacheKey();
+        Object cached = local != null ? local.getIfPresent(key) : null;
+        if (cached instanceof RoutingResolution resolution) {
+            refreshAhead.check(request, resolution);
+            return Mono.just(count(key, resolution, "resolver").withQuery(passThrough));
+        }
+        return redis.opsForValue().get(redisKey(key))
+                .doOnNext(resolution -> {
+                    putLocal(key, resolution);
+                    refreshAhead.check(request, resolution);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Reactive cache read failed for {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                })
+                // the load is shared with concurrent callers, so one subscriber cancelling must not cancel it
+                .switchIfEmpty(Mono.defer(() -> Mono.fromFuture(load(key, request), true)))
+                .map(resolution -> count(key, resolution, "resolver"))
+                .onErrorResume(RoutingUnavailableException.class, e -> Mono.just(count(null, e.getFallback(), "fallback")))
+                .map(resolution -> resolution.withQuery(passThrough));
+    }
+
+    private RoutingResolution count(String key, RoutingResolution resolution, String source) {
+        meterRegistry.counter("routing.requests", "outcome", resolution.outcome(), "source", source).increment();
+        if (key != null && !resolution.isUnresolved()) {
+            hotKeyTracker.record(key);
+        }
+        return resolution;
+    }
+
+    private CompletableFuture<RoutingResolution> load(String key, RoutingRequest request) {
+        CompletableFuture<RoutingResolution> claim = new CompletableFuture<>();
+        CompletableFuture<RoutingResolution> existing = inFlight.putIfAbsent(key, claim);
+        if (existing != null) {
+            return existing;
+        }
+        loadShared(key, request, lockKey(key), System.nanoTime() + leaseDuration.toNanos()).subscribe(resolution -> {
+            inFlight.remove(key, claim);
+            claim.complete(resolution);
+        }, error -> {
+            inFlight.remove(key, claim);
+            claim.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        });
+        return claim;
+    }
+
+    /**
+     * Resolves under the cross-node lease, or waits for the node holding it. Redis errors fail open, as in
+     * {@code RedisLeaseLock}: the lease counts as taken.
+     */
+    private Mono<RoutingResolution> loadShared(String key, RoutingRequest request, String lockKey, long deadline) {
+        return leases.opsForValue().setIfAbsent(lockKey, nodeId, leaseDuration)
+                .onErrorResume(e -> {
+                    log.warn("Could not acquire lease {} : {}", lockKey, e.getMessage());
+                    return Mono.just(true);
+                })
+                .flatMap(leased -> leased
+                        ? resolveAndStore(key, request, lockKey)
+                        : awaitShared(key, request, lockKey, deadline));
+    }
+
+    private Mono<RoutingResolution> awaitShared(String key, RoutingRequest request, String lockKey, long deadline) {
+        if (System.nanoTime() - deadline >= 0) {
+            // the holder is still at it after a whole lease: resolve here, as the blocking cache does
+            return resolveAndStore(key, request, null);
+        }
+        return Mono.delay(leasePollInterval)
+                .then(readShared(key))
+                .switchIfEmpty(Mono.defer(() -> leases.hasKey(lockKey)
+                        .onErrorReturn(false)
+                        .flatMap(held -> held
+                                ? awaitShared(key, request, lockKey, deadline)
+                                // released after a failed load, or expired; the holder may have stored its entry just before
+                                : readShared(key).switchIfEmpty(Mono.defer(() -> loadShared(key, request, lockKey, deadline))))));
+    }
+
+    private Mono<RoutingResolution> readShared(String key) {
+        return redis.opsForValue().get(redisKey(key))
+                .doOnNext(resolution -> putLocal(key, resolution))
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    // the caller gets the resolution at once; the entry is written before the lease goes, so waiters find it
+    private Mono<RoutingResolution> resolveAndStore(String key, RoutingRequest request, String lockKey) {
+        return Mono.fromFuture(() -> seoRoutingResolver.resolveAsync(request))
+                .doOnNext(resolution -> {
+                    putLocal(key, resolution);
+                    redis.opsForValue().set(redisKey(key), resolution, cacheEntryTtl.of(resolution))
+                            .onErrorResume(e -> {
+                                log.warn("Reactive cache write failed for {}: {}", key, e.getMessage());
+                                return Mono.just(false);
+                            })
+                            .then(release(lockKey))
+                            .subscribe();
+                })
+                .doOnError(e -> release(lockKey).subscribe());
+    }
+
+    private Mono<Void> release(String lockKey) {
+        if (lockKey == null) {
+            return Mono.empty();
+        }
+        return leases.execute(RELEASE, List.of(lockKey), List.of(nodeId))
+                .onErrorResume(e -> {
+                    // the lease expires on its own
+                    log.warn("Could not release lease {} : {}", lockKey, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // the blocking cache's lease key
+    private static String lockKey(String key) {
+        return "lock:" + CACHE_NAME + "::" + key;
+    }
+
+    // the servlet cache's key, in the current generation
+    private String redisKey(String key) {
+        return cacheGenerations.prefixFor(CACHE_NAME) + key;
+    }
+
+    private void putLocal(String key, RoutingResolution resolution) {
+        if (local != null) {
+            local.put(key, resolution);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.abelini_routing_middleware.routing;
+
+import com.abelini_routing_middleware.cache.CacheEntryTtl;
+import com.abelini_routing_middleware.cache.TwoTierCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-resolves a {@code seoToQuery} entry in the background once {@code cache.refresh-ahead.fraction} of its fresh
+ * lifetime has passed and it is still being requested, while the cached value keeps being served. Hot URLs so never
+ * wait for the ERP, and entries past their TTL (in the stale grace of {@link CacheEntryTtl}) are served until a
+ * refresh succeeds: a failed one (ERP down, circuit open) leaves the current value in place.
+ * <p>
+ * A key is refreshed at most once per {@code cache.refresh-ahead.retry-interval-ms} across the fleet (a Redis
+ * lease), by at most {@code cache.refresh-ahead.concurrency} threads per node; refreshes that do not fit the queue
+ * are dropped and retried on a later hit. Outcomes are counted in {@code cache.refresh.ahead}.
+ */
+@Log4j2
+@Component
+public class RefreshAhead {
+    private static final String CACHE_NAME = "seoToQuery";
+
+    private final SeoRoutingResolver seoRoutingResolver;
+    private final CacheManager cacheManager;
+    private final CacheEntryTtl cacheEntryTtl;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double fraction;
+    private final Duration retryInterval;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor workers;
+
+    public RefreshAhead(SeoRoutingResolver seoRoutingResolver, CacheManager cacheManager, CacheEntryTtl cacheEntryTtl,
+                        StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                        @Value("${cache.refresh-ahead.enabled:true}") boolean enabled,
+                        @Value("${cache.refresh-ahead.fraction:0.8}") double fraction,
+                        @Value("${cache.refresh-ahead.retry-interval-ms:60000}") long retryIntervalMs,
+                        @Value("${cache.refresh-ahead.concurrency:4}") int concurrency,
+                        @Value("${cache.refresh-ahead.queue-size:1000}") int queueSize) {
+        this.seoRoutingResolver = seoRoutingResolver;
+        this.cacheManager = cacheManager;
+        this.cacheEntryTtl = cacheEntryTtl;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.fraction = fraction;
+        this.retryInterval = Duration.ofMillis(retryIntervalMs);
+        this.workers = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-ahead");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a background refresh of the entry {@code resolution} was served from, if it is due. Never blocks.
+     */
+    public void check(RoutingRequest request, RoutingResolution resolution) {
+        if (!enabled || resolution.isUnresolved() || resolution.getResolvedAt() == 0) {
+            return;
+        }
+        long age = System.currentTimeMillis() - resolution.getResolvedAt();
+        if (age < cacheEntryTtl.freshFor(resolution).toMillis() * fraction) {
+            return;
+        }
+        String key = request.cacheKey();
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            workers.execute(() -> refresh(key, request));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            count("dropped");
+        }
+    }
+
+    private void refresh(String key, RoutingRequest request) {
+        try {
+            // not released: it also spaces out the retries while the ERP is failing
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent("lock:refresh:" + CACHE_NAME + "::" + key, "1", retryInterval))) {
+                count("skipped");
+                return;
+            }
+            RoutingResolution fresh = seoRoutingResolver.resolveAsync(request).join();
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            if (cache instanceof TwoTierCache twoTier) {
+                twoTier.replace(key, fresh);
+            } else if (cache != null) {
+                cache.put(key, fresh);
+            }
+            count("success");
+        } catch (Exception e) {
+            count("failure");
+            log.debug("Refresh of {} failed, keeping the cached entry: {}", key, e.getMessage());
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("cache.refresh.ahead", "outcome", outcome).increment();
+    }
+
+    @PreDestroy
+    public void close() {
+        workers.shutdownNow();
+    }
+}
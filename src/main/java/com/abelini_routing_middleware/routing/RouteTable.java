@@ -0,0 +1,126 @@
+package com.abelini_routing_middleware.routing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable, compiled form of {@code routes.json}. Static routes live in a trie keyed by
+ * path segment, so a lookup walks the request path once no matter how many routes there
+ * are; prefix routes and the key-to-page table are plain hash lookups.
+ */
+public final class RouteTable {
+    private final Node root;
+    private final Map<String, PrefixRoute> prefixes;
+    private final Map<String, String> pages;
+    private final String defaultPage;
+    private final int staticRoutes;
+
+    private RouteTable(Node root, Map<String, PrefixRoute> prefixes, Map<String, String> pages, int staticRoutes) {
+        this.root = root;
+        this.prefixes = prefixes;
+        this.pages = pages;
+        this.defaultPage = pages.get("default");
+        this.staticRoutes = staticRoutes;
+    }
+
+    /**
+     * How a first path segment such as {@code product} or {@code search} is routed instead
+     * of through a keyword lookup.
+     *
+     * @param key      SEO key to route on, {@code ""} when only a child segment decides it
+     * @param strip    whether the segment is dropped before the keyword lookups
+     * @param children keys chosen by the segment that follows, if any
+     * @param search   whether the rest of the path is the search query
+     */
+    public record PrefixRoute(String key, boolean strip, Map<String, String> children, boolean search) {
+    }
+
+    /**
+     * @param placeholders resolves {@code ${...}} references in page names, so the
+     *                     {@code page.*} properties stay the source of truth
+     */
+    public static RouteTable compile(JsonNode definition, UnaryOperator<String> placeholders) {
+        Node root = new Node();
+        int staticRoutes = 0;
+        for (Iterator<Map.Entry<String, JsonNode>> it = definition.path("static").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> route = it.next();
+            Node node = root;
+            for (String segment : route.getKey().split("/")) {
+                if (!segment.isEmpty()) {
+                    node = node.children.computeIfAbsent(segment, s -> new Node());
+                }
+            }
+            if (node == root) {
+                throw new IllegalArgumentException("Static route must have at least one segment: " + route.getKey());
+            }
+            node.target = route.getValue().asText();
+            staticRoutes++;
+        }
+
+        Map<String, PrefixRoute> prefixes = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = definition.path("prefixes").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> prefix = it.next();
+            JsonNode rule = prefix.getValue();
+            Map<String, String> children = new HashMap<>();
+            rule.path("children").fields().forEachRemaining(child -> children.put(child.getKey(), child.getValue().asText()));
+            prefixes.put(prefix.getKey(), new PrefixRoute(rule.path("key").asText(""), rule.path("strip").asBoolean(false),
+                    Map.copyOf(children), rule.path("search").asBoolean(false)));
+        }
+
+        Map<String, String> pages = new HashMap<>();
+        definition.path("pages").fields().forEachRemaining(page -> pages.put(page.getKey(), placeholders.apply(page.getValue().asText())));
+        if (!pages.containsKey("default")) {
+            throw new IllegalArgumentException("Route table has no default page");
+        }
+        return new RouteTable(root, Map.copyOf(prefixes), Map.copyOf(pages), staticRoutes);
+    }
+
+    /**
+     * The internal URL for an exact static route, or {@code null}. Paths with empty
+     * segments (trailing or doubled slashes) never match, as with the old exact-key map.
+     */
+    public String staticTarget(String path) {
+        if (path == null || path.length() < 2 || path.charAt(0) != '/') {
+            return null;
+        }
+        Node node = root;
+        int start = 1;
+        while (node != null) {
+            int end = path.indexOf('/', start);
+            if (end == start) {
+                return null;
+            }
+            String segment = end < 0 ? path.substring(start) : path.substring(start, end);
+            if (segment.isEmpty()) {
+                return null;
+            }
+            node = node.children.get(segment);
+            if (end < 0) {
+                return node != null ? node.target : null;
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    public PrefixRoute prefix(String firstSegment) {
+        return prefixes.get(firstSegment);
+    }
+
+    public String page(String key) {
+        return pages.getOrDefault(key, defaultPage);
+    }
+
+    public int size() {
+        return staticRoutes;
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>(4);
+        String target;
+    }
+}
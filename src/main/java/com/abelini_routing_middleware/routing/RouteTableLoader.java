@@ -0,0 +1,96 @@
+package com.abelini_routing_middleware.routing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the live {@link RouteTable}. The definition is read from
+ * {@code routing.routes.location} at startup (failing fast if it is broken) and re-read
+ * whenever the file changes; a new table replaces the old one in a single atomic swap,
+ * and a definition that does not compile leaves the current table in place.
+ */
+@Log4j2
+@Component
+public class RouteTableLoader {
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final CacheManager cacheManager;
+    private final Resource location;
+    private final AtomicReference<RouteTable> table = new AtomicReference<>();
+    private volatile long loadedModified;
+
+    public RouteTableLoader(ObjectMapper objectMapper, Environment environment, CacheManager cacheManager, ResourceLoader resourceLoader,
+                            @Value("${routing.routes.location:classpath:routes.json}") String location) throws IOException {
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.cacheManager = cacheManager;
+        this.location = resourceLoader.getResource(location);
+        this.loadedModified = lastModified();
+        table.set(compile());
+        log.info("Route table loaded from {}: {} static routes", location, table.get().size());
+    }
+
+    public RouteTable current() {
+        return table.get();
+    }
+
+    @Scheduled(fixedDelayString = "${routing.routes.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        long modified = lastModified();
+        if (modified == loadedModified) {
+            return;
+        }
+        reload();
+        loadedModified = modified;
+    }
+
+    /**
+     * Recompiles the definition now. Cached resolutions were made with the old table, so
+     * {@code seoToQuery} is cleared once the new table is live.
+     */
+    public boolean reload() {
+        try {
+            RouteTable fresh = compile();
+            table.set(fresh);
+            Cache cache = cacheManager.getCache("seoToQuery");
+            if (cache != null) {
+                cache.clear();
+            }
+            log.info("Route table reloaded from {}: {} static routes", location, fresh.size());
+            return true;
+        } catch (Exception e) {
+            log.error("Route table reload from {} failed, keeping the current table: {}", location, e.getMessage());
+            return false;
+        }
+    }
+
+    private RouteTable compile() throws IOException {
+        JsonNode definition;
+        try (InputStream in = location.getInputStream()) {
+            definition = objectMapper.readTree(in);
+        }
+        return RouteTable.compile(definition, environment::resolveRequiredPlaceholders);
+    }
+
+    // 0 for resources without a timestamp (for example inside the jar), which are never reloaded
+    private long lastModified() {
+        try {
+            return location.isFile() ? location.lastModified() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.abelini_routing_middleware.routing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.URI;
+
+/**
+ * The parts of an incoming request the resolver depends on. Keeping the resolver off
+ * {@link HttpServletRequest} lets its result be cached and replayed.
+ */
+@Getter
+public class RoutingRequest {
+    private final String requestUri;
+    private final String requestUrl;
+    private final String queryString;
+    // parameters left out of the cache key that still go to the target; see CacheKeyBuilder
+    private final String passThroughQuery;
+
+    public RoutingRequest(String requestUri, String requestUrl, String queryString) {
+        this(requestUri, requestUrl, queryString, null);
+    }
+
+    public RoutingRequest(String requestUri, String requestUrl, String queryString, String passThroughQuery) {
+        this.requestUri = requestUri;
+        this.requestUrl = requestUrl;
+        this.queryString = queryString;
+        this.passThroughQuery = passThroughQuery;
+    }
+
+    public static RoutingRequest from(HttpServletRequest request) {
+        return new RoutingRequest(request.getRequestURI(), request.getRequestURL().toString(), request.getQueryString());
+    }
+
+    public static RoutingRequest from(ServerHttpRequest request) {
+        URI uri = request.getURI();
+        // same shape as HttpServletRequest#getRequestURL: no query, default port omitted
+        String requestUrl = uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath();
+        return new RoutingRequest(uri.getRawPath(), requestUrl, uri.getRawQuery());
+    }
+
+    /**
+     * The request a {@link #cacheKey()} was made from, for re-resolving cached entries.
+     */
+    public static RoutingRequest fromCacheKey(String cacheKey) {
+        int query = cacheKey.indexOf('?');
+        String requestUrl = query < 0 ? cacheKey : cacheKey.substring(0, query);
+        return new RoutingRequest(URI.create(requestUrl).getRawPath(), requestUrl, query < 0 ? null : cacheKey.substring(query + 1));
+    }
+
+    public String cacheKey() {
+        return requestUrl + (queryString != null ? "?" + queryString : "");
+    }
+
+    @Override
+    public String toString() {
+        return cacheKey();
+    }
+}
@@ -0,0 +1,285 @@
+package com.abelini_routing_middleware.routing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Everything {@code resolveSeoToQuery} does to a request: the internal target or a
+ * redirect, the headers it sets and the keywords it resolved. It is what gets cached,
+ * and {@link #replay} reproduces the original side effects on a cache hit. Resolutions
+ * for paths no SEO keyword matched are flagged {@link #isUnresolved() unresolved} so the
+ * cache can keep them for a shorter time; {@link #getResolvedAt()} tells the cache when an
+ * entry is due for a refresh.
+ */
+public final class RoutingResolution {
+    public static final String KEYWORDS_ATTRIBUTE = "resolved_keywords";
+
+    private static final byte FORMAT_MAGIC = 'R';
+    private static final byte FORMAT_VERSION = 3;
+    private static final byte FLAG_UNRESOLVED = 1;
+    private static final String[] NONE = new String[0];
+
+    private final String target;
+    private final int redirectStatus;
+    private final String redirectLocation;
+    // name/value pairs, in the order they were set
+    private final String[] headers;
+    // null when the resolution did not resolve keywords at all
+    private final String[] keywords;
+    private final boolean unresolved;
+    // epoch millis, 0 for entries written before it was recorded
+    private final long resolvedAt;
+
+    private RoutingResolution(String target, int redirectStatus, String redirectLocation, String[] headers, String[] keywords,
+                              boolean unresolved, long resolvedAt) {
+        this.target = target;
+        this.redirectStatus = redirectStatus;
+        this.redirectLocation = redirectLocation;
+        this.headers = headers;
+        this.keywords = keywords;
+        this.unresolved = unresolved;
+        this.resolvedAt = resolvedAt;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public boolean isRedirect() {
+        return redirectStatus != 0;
+    }
+
+    public boolean isUnresolved() {
+        return unresolved;
+    }
+
+    /**
+     * When this resolution was computed, in epoch millis; 0 if unknown.
+     */
+    public long getResolvedAt() {
+        return resolvedAt;
+    }
+
+    /**
+     * {@code redirect}, {@code unresolved} or {@code target}; the outcome tag of the routing metrics.
+     */
+    public String outcome() {
+        return isRedirect() ? "redirect" : unresolved ? "unresolved" : "target";
+    }
+
+    /**
+     * This resolution with {@code query} appended to its target; redirects and an empty query leave it as is.
+     */
+    public RoutingResolution withQuery(String query) {
+        if (query == null || query.isEmpty() || target == null) {
+            return this;
+        }
+        int fragment = target.indexOf('#');
+        String base = fragment < 0 ? target : target.substring(0, fragment);
+        String withQuery = base + (base.indexOf('?') < 0 ? "?" : "&") + query + (fragment < 0 ? "" : target.substring(fragment));
+        return new RoutingResolution(withQuery, redirectStatus, redirectLocation, headers, keywords, unresolved, resolvedAt);
+    }
+
+    public int getRedirectStatus() {
+        return redirectStatus;
+    }
+
+    public String getRedirectLocation() {
+        return redirectLocation;
+    }
+
+    public String getHeader(String name) {
+        for (int i = 0; i < headers.length; i += 2) {
+            if (headers[i].equalsIgnoreCase(name)) {
+                return headers[i + 1];
+            }
+        }
+        return null;
+    }
+
+    public Set<String> getKeywords() {
+        return keywords == null ? null : new LinkedHashSet<>(Arrays.asList(keywords));
+    }
+
+    /**
+     * Applies the headers, keywords attribute and redirect to the current request.
+     *
+     * @return the internal target, or {@code null} when a redirect was sent
+     */
+    public String replay(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        for (int i = 0; i < headers.length; i += 2) {
+            response.setHeader(headers[i], headers[i + 1]);
+        }
+        if (keywords != null) {
+            request.setAttribute(KEYWORDS_ATTRIBUTE, getKeywords());
+        }
+        if (isRedirect()) {
+            response.setStatus(redirectStatus);
+            response.setHeader("Location", redirectLocation);
+            response.flushBuffer(); // Important: make sure the response is sent
+            return null;
+        }
+        return target;
+    }
+
+    /**
+     * Reactive counterpart of {@link #replay(HttpServletRequest, HttpServletResponse)}. For a
+     * redirect the status and {@code Location} are set but completing the response is left
+     * to the caller.
+     *
+     * @return the internal target, or {@code null} when the result is a redirect
+     */
+    public String replay(ServerWebExchange exchange) {
+        HttpHeaders responseHeaders = exchange.getResponse().getHeaders();
+        for (int i = 0; i < headers.length; i += 2) {
+            responseHeaders.set(headers[i], headers[i + 1]);
+        }
+        if (keywords != null) {
+            exchange.getAttributes().put(KEYWORDS_ATTRIBUTE, getKeywords());
+        }
+        if (isRedirect()) {
+            exchange.getResponse().setStatusCode(HttpStatusCode.valueOf(redirectStatus));
+            responseHeaders.set(HttpHeaders.LOCATION, redirectLocation);
+            return null;
+        }
+        return target;
+    }
+
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(unresolved ? FLAG_UNRESOLVED : 0);
+            out.writeLong(resolvedAt);
+            writeNullable(out, target);
+            out.writeShort(redirectStatus);
+            writeNullable(out, redirectLocation);
+            writeArray(out, headers);
+            writeArray(out, keywords);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize routing resolution", e);
+        }
+    }
+
+    /**
+     * @return the decoded resolution, or {@code null} if the bytes are not in this format
+     * (for example an entry written by an older release), which callers treat as a miss
+     */
+    public static RoutingResolution fromBytes(byte[] data) {
+        if (data == null || data.length < 2 || data[0] != FORMAT_MAGIC || data[1] < 1 || data[1] > FORMAT_VERSION) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 2, data.length - 2));
+            // version 1 predates the flags byte
+            int flags = data[1] >= 2 ? in.readByte() : 0;
+            // versions 1 and 2 predate the resolution time
+            long resolvedAt = data[1] >= 3 ? in.readLong() : 0;
+            String target = readNullable(in);
+            int redirectStatus = in.readShort();
+            String redirectLocation = readNullable(in);
+            String[] headers = readArray(in);
+            String[] keywords = readArray(in);
+            return new RoutingResolution(target, redirectStatus, redirectLocation, headers == null ? NONE : headers, keywords,
+                    (flags & FLAG_UNRESOLVED) != 0, resolvedAt);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeArray(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values == null ? -1 : values.length);
+        if (values != null) {
+            for (String value : values) {
+                writeNullable(out, value);
+            }
+        }
+    }
+
+    private static String[] readArray(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        String[] values = new String[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = readNullable(in);
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return isRedirect() ? redirectStatus + " -> " + redirectLocation : String.valueOf(target);
+    }
+
+    public static final class Builder {
+        private final List<String> headers = new ArrayList<>(8);
+        private String[] keywords;
+        private boolean unresolved;
+
+        private Builder() {
+        }
+
+        public Builder header(String name, String value) {
+            headers.add(name);
+            headers.add(value);
+            return this;
+        }
+
+        public Builder keywords(Collection<String> keywords) {
+            this.keywords = keywords.toArray(NONE);
+            return this;
+        }
+
+        /**
+         * Marks the path as not matching any SEO keyword (a 404 or a plain pass-through).
+         */
+        public Builder unresolved() {
+            this.unresolved = true;
+            return this;
+        }
+
+        public RoutingResolution target(String target) {
+            return new RoutingResolution(target, 0, null, headers.toArray(NONE), keywords, unresolved, System.currentTimeMillis());
+        }
+
+        public RoutingResolution redirect(int status, String location) {
+            return new RoutingResolution(null, status, location, headers.toArray(NONE), keywords, unresolved, System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.abelini_routing_middleware.routing;
+
+/**
+ * Thrown out of the cached resolver when an ERP lookup failed part-way. It carries the
+ * best-effort resolution for this request, which is served but never cached.
+ */
+public class RoutingUnavailableException extends RuntimeException {
+    private final transient RoutingResolution fallback;
+
+    public RoutingUnavailableException(RoutingResolution fallback) {
+        super("SEO data unavailable, resolved without caching: " + fallback);
+        this.fallback = fallback;
+    }
+
+    public RoutingResolution getFallback() {
+        return fallback;
+    }
+}
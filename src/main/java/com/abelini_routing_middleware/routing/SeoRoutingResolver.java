@@ -0,0 +1,460 @@
+package com.abelini_routing_middleware.routing;
+
+import com.abelini_routing_middleware.cache.CacheIndex;
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+import com.abelini_routing_middleware.seo.SeoDataService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a public SEO URL into the internal PHP target. The whole {@link RoutingResolution}
+ * is cached in {@code seoToQuery}, so a hit costs no ERP lookups and replays the same
+ * headers and keywords as the original resolution.
+ * <p>
+ * Each computed resolution is timed as {@code routing.resolve} (tagged with its outcome,
+ * {@code unavailable} when an ERP lookup failed), and matching the path against the route
+ * table as {@code routing.route.match}, tagged with the kind of route it found.
+ */
+@Log4j2
+@Service
+public class SeoRoutingResolver {
+    private final SeoDataService seoDataService;
+    private final RouteTableLoader routeTableLoader;
+    private final MeterRegistry meterRegistry;
+    private final CacheIndex cacheIndex;
+
+    public SeoRoutingResolver(SeoDataService seoDataService, RouteTableLoader routeTableLoader, MeterRegistry meterRegistry,
+                              CacheIndex cacheIndex) {
+        this.seoDataService = seoDataService;
+        this.routeTableLoader = routeTableLoader;
+        this.meterRegistry = meterRegistry;
+        this.cacheIndex = cacheIndex;
+    }
+
+    /**
+     * Resolves and caches {@code request}. If an ERP lookup failed the best-effort result is
+     * thrown inside a {@link RoutingUnavailableException} instead, so an outage is served
+     * as before but never cached as a 404.
+     */
+    // sync: concurrent misses for one URL share a single resolution (see TwoTierCache)
+    @Cacheable(cacheNames = "seoToQuery", key = "#request.cacheKey()", sync = true)
+    public RoutingResolution resolve(RoutingRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Lookups lookups = new Lookups(false);
+        RoutingResolution resolution = compute(request, lookups);
+        sample.stop(meterRegistry.timer("routing.resolve", "outcome", lookups.failed ? "unavailable" : resolution.outcome()));
+        return checked(request, resolution, lookups);
+    }
+
+    /**
+     * Non-blocking, uncached {@link #resolve} for the reactive pipeline. A pass that reaches
+     * an unfinished ERP lookup is abandoned and replayed once every lookup it started has
+     * completed, so no thread ever waits on the ERP.
+     */
+    public CompletableFuture<RoutingResolution> resolveAsync(RoutingRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return resolvePass(request, new Lookups(true)).whenComplete((resolution, error) -> sample.stop(meterRegistry.timer(
+                "routing.resolve", "outcome", error != null ? "unavailable" : resolution.outcome())));
+    }
+
+    private CompletableFuture<RoutingResolution> resolvePass(RoutingRequest request, Lookups lookups) {
+        try {
+            return CompletableFuture.completedFuture(checked(request, compute(request, lookups), lookups));
+        } catch (LookupsPending pending) {
+            return lookups.allDone().thenCompose(ignored -> resolvePass(request, lookups));
+        } catch (RoutingUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Fails an incomplete resolution; indexes a complete one under what it was resolved from, for targeted purges.
+     */
+    private RoutingResolution checked(RoutingRequest request, RoutingResolution resolution, Lookups lookups) {
+        if (lookups.failed) {
+            throw new RoutingUnavailableException(resolution);
+        }
+        cacheIndex.record(request.cacheKey(), request.getRequestUri().replace("/routing-value", ""),
+                lookups.keywords, lookups.shopifyIds);
+        return resolution;
+    }
+
+    private RoutingResolution compute(RoutingRequest request, Lookups lookups) {
+        RoutingResolution.Builder resolution = RoutingResolution.builder();
+        RouteTable routes = routeTableLoader.current();
+        // a replayed async pass repeats the match; only the first one is measured
+        boolean firstPass = lookups.started.isEmpty();
+        try {
+            log.debug("convert seo to url {}", request.getRequestUri());
+
+            String path = request.getRequestUri().replace("/routing-value", "");
+            String queryPart = request.getQueryString();
+            if (!request.getRequestUri().startsWith("/routing-value")) {
+                log.debug("inside startswith");
+
+                if (queryPart == null || queryPart.isEmpty()) {
+                    queryPart = "hitUrlKeyword=" + request.getRequestUri();
+                } else {
+                    queryPart += "&hitUrlKeyword=" + request.getRequestUri();
+                    queryPart += "&hitUrlQuery=" + Base64.getEncoder().encodeToString(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            if (path.startsWith("/internal")) {
+                if (queryPart != null && !queryPart.isEmpty()) {
+                    if (path.contains("?")) {
+                        path += "&" + queryPart;
+                    } else {
+                        path += "?" + queryPart;
+                    }
+                }
+                return resolution.target(path);
+            }
+            log.debug("hitUrlKeyword inside resolveSeoToQuery ::: {}", request.getRequestUri());
+            String hitUrl = (request.getRequestUrl() + (queryPart != null ? "?" + queryPart : "")).replace("/routing-value", "");
+            String hitUrlPathFull = request.getRequestUri().replace("/routing-value", "") + (queryPart != null ? "?" + queryPart : "");
+            resolution.header("hitUrl", hitUrl);
+            resolution.header("hitUrlPath", request.getRequestUri().replace("/routing-value", ""));
+            resolution.header("hitUrlPathFull", hitUrlPathFull);
+
+            long matchStart = System.nanoTime();
+            String mappedUrl = routes.staticTarget(path);
+            if (mappedUrl != null) {
+                recordRouteMatch(firstPass, matchStart, "static");
+                if (queryPart != null && !queryPart.isEmpty()) {
+                    if (mappedUrl.contains("?")) {
+                        mappedUrl += "&" + queryPart;
+                    } else {
+                        mappedUrl += "?" + queryPart;
+                    }
+                }
+                return resolution.target(mappedUrl);
+            }
+
+            String fullUrl = request.getRequestUrl() + (queryPart != null ? "?" + queryPart : "");
+
+            String fragment = null;
+
+            if (fullUrl.contains("#")) {
+                fragment = fullUrl.substring(fullUrl.indexOf("#"));
+                fullUrl = fullUrl.substring(0, fullUrl.indexOf("#"));
+                path = new URI(fullUrl).getPath();
+            }
+
+            // Default storeId and languageId
+            int storeId = 0;
+            int languageId = 1;
+
+            Map<String, List<String>> filterMap = new HashMap<>();
+            String qu = request.getQueryString();
+            if (qu != null && !qu.isEmpty()) {
+                filterMap.put("fullQuery", List.of(Base64.getEncoder().encodeToString(qu.getBytes(StandardCharsets.UTF_8))));
+            }
+
+            UrlTokenizer.PathTokens pathTokens = UrlTokenizer.path(path);
+            List<String> pathParts = pathTokens.segments();
+            String stoneType = pathTokens.stoneType();
+
+            StringBuilder queryString = new StringBuilder();
+
+            if (!pathParts.isEmpty()) {
+                String page;
+                String firstPart = pathParts.get(0);
+                RouteTable.PrefixRoute prefix = routes.prefix(firstPart);
+                boolean prefixRoute = prefix != null;
+                recordRouteMatch(firstPass, matchStart, prefixRoute ? "prefix" : "keyword");
+                String key = "";
+
+                if (prefixRoute) {
+                    if (prefix.strip()) {
+                        pathParts.remove(0);
+                    }
+                    key = prefix.key();
+                    if (!prefix.children().isEmpty()) {
+                        String subPath = pathParts.get(0);
+                        key = prefix.children().getOrDefault(subPath, key);
+                    }
+                    if (prefix.search() && !pathParts.isEmpty()) {
+                        String searchQuery = path.replace("/" + firstPart + "/", "");
+                        if (queryPart == null || queryPart.isEmpty()) {
+                            queryPart = "q=" + searchQuery;
+                        } else {
+                            queryPart += "&q=" + searchQuery;
+                        }
+                    }
+                }
+                // otherwise a category or other keyword page: key comes from the first part's SEO row
+
+                // Query param parsing
+                Map<String, String> rawQueryParams = new HashMap<>();
+                List<String> allValueParts = List.of();
+                if (queryPart != null && !queryPart.isBlank()) {
+                    UrlTokenizer.forEachParam(queryPart, (name, value) -> {
+                        if (value != null) {
+                            rawQueryParams.put(name, value);
+                        }
+                    });
+
+                    // Condition Handle sort => sort_by
+                    if (rawQueryParams.containsKey("sort")) {
+                        String sortValue = rawQueryParams.remove("sort");
+                        String orderValue = rawQueryParams.remove("order");
+                        String convertedSort = fetchSortValue(sortValue, orderValue);
+                        if (convertedSort != null) {
+                            rawQueryParams.put("sort_by", convertedSort);
+                        }
+                    }
+
+                    // Get all filter param values
+                    List<String> valueParts = new ArrayList<>();
+                    UrlTokenizer.forEachToken(rawQueryParams.get("filter_param"), '_', value -> {
+                        if (!value.isBlank() && !valueParts.contains(value)) {
+                            valueParts.add(value);
+                        }
+                    });
+                    allValueParts = valueParts;
+                }
+
+                // All lookup inputs are known at this point, so the ERP requests run concurrently
+                // and a miss costs one round trip instead of up to four.
+                List<String> bcParts = pathParts.size() >= 2 ? List.copyOf(pathParts.subList(1, Math.min(3, pathParts.size()))) : List.of();
+                CompletableFuture<List<SeoDataResponseDTO>> pageFindLookup = prefixRoute
+                        ? CompletableFuture.completedFuture(List.of())
+                        : lookups.fetch(List.of(firstPart), storeId, languageId, "keyword");
+                CompletableFuture<List<SeoDataResponseDTO>> dataLookup = lookups.fetch(List.copyOf(pathParts), storeId, languageId, "keyword");
+                CompletableFuture<List<SeoDataResponseDTO>> breadcrumbLookup = lookups.fetch(bcParts, storeId, languageId, "keyword");
+                CompletableFuture<List<SeoDataResponseDTO>> valueLookup = lookups.fetch(allValueParts, storeId, languageId, "value");
+
+                List<SeoDataResponseDTO> pageFind = lookups.rows(pageFindLookup);
+
+                if (prefixRoute || !pageFind.isEmpty()) {
+                    if (!prefixRoute) {
+                        key = pageFind.get(0).getKey();
+                    }
+
+                    List<SeoDataResponseDTO> dataList = lookups.rows(dataLookup);
+
+                    if (!"search_id".equals(key)) {
+                        if (dataList == null || dataList.isEmpty() || dataList.size() != pathParts.size()) {
+                            String url404 = "/internal/404.php";
+                            if (queryPart != null && !queryPart.isEmpty()) {
+                                url404 += "?" + queryPart;
+                            }
+                            return resolution.unresolved().target(url404);
+                        }
+                    }
+
+                    if ("blog".equals(key) || "customer_story".equals(key)) {
+                        key = dataList.get(0).getKey();
+                    }
+
+                    page = routes.page(key);
+
+                    //condition: bread crumbs
+                    if (!bcParts.isEmpty()) {
+                        List<SeoDataResponseDTO> breadcrumbSeoData = lookups.rows(breadcrumbLookup);
+                        List<String> bcShopifyIds = breadcrumbSeoData.stream()
+                                .map(SeoDataResponseDTO::getShopifyId)
+                                .filter(Objects::nonNull)
+                                .toList();
+                        if (!bcShopifyIds.isEmpty()) {
+                            filterMap.put("filter_breadcrumb", new ArrayList<>(bcShopifyIds));
+                        }
+                    }
+
+                    if (queryPart != null && !queryPart.isBlank()) {
+                        if (rawQueryParams.containsKey("filter_param")) {
+                            List<String> tempArr = new ArrayList<>();
+                            tempArr.add(rawQueryParams.get("filter_param"));
+                            filterMap.put("filter_param", tempArr);
+                        }
+
+                        rawQueryParams.remove("filter_param");
+
+                        List<SeoDataResponseDTO> valueList = lookups.rows(valueLookup);
+                        if (!valueList.isEmpty()) {
+                            dataList.addAll(valueList);
+                        }
+                    }
+
+                    Set<String> keywords = dataList.stream()
+                            .map(SeoDataResponseDTO::getKeyword)
+                            .filter(Objects::nonNull)
+                            .filter(k -> !k.isBlank())
+                            .collect(Collectors.toCollection(LinkedHashSet::new));
+                    resolution.keywords(keywords);
+                    resolution.header("X-Keywords", String.join(",", keywords));
+
+                    for (SeoDataResponseDTO data : dataList) {
+                        filterMap.computeIfAbsent(data.getKey(), k -> new ArrayList<>()).add(data.getShopifyId());
+                    }
+
+                    Map<String, String> queryParams = new LinkedHashMap<>();
+
+                    for (Map.Entry<String, List<String>> entry : filterMap.entrySet()) {
+                        if (!entry.getValue().isEmpty()) {
+                            String combined = String.join(",", entry.getValue());
+                            queryParams.put(entry.getKey(), combined);
+                        }
+                    }
+
+                    //condition: all others param
+                    for (Map.Entry<String, String> entry : rawQueryParams.entrySet()) {
+                        queryParams.merge(entry.getKey(), entry.getValue(), UrlTokenizer::mergeValues);
+                    }
+
+                    // Step 3: Merge stoneType into queryParams if not null
+                    if (stoneType != null) {
+                        queryParams.merge("stone_type", stoneType, UrlTokenizer::mergeValues);
+                    }
+
+                    queryString.append(page);
+                    if (!queryParams.isEmpty()) {
+                        queryString.append("?");
+                        queryParams.forEach((k, v) -> queryString.append(k).append("=").append(v).append("&"));
+                        queryString.setLength(queryString.length() - 1);
+                    }
+                } else {
+                    // first segment is not a known keyword: pass through, typically to a 404
+                    resolution.unresolved();
+                    queryString.append(path);
+                    if (queryPart != null && !queryPart.isBlank()) {
+                        queryString.append("?").append(queryPart);
+                    }
+                }
+            } else {
+                recordRouteMatch(firstPass, matchStart, "root");
+                queryString.append(path);
+                if (queryPart != null && !queryPart.isBlank()) {
+                    queryString.append("?").append(queryPart);
+                }
+            }
+
+            //condition: add fragment if any
+            if (fragment != null) {
+                queryString.append(fragment);
+            }
+
+            return resolution.target("/internal" + (queryString.toString().startsWith("/") ? queryString : "/" + queryString));
+        } catch (LookupsPending pending) {
+            throw pending;
+        } catch (Exception e) {
+            log.error("Error occurred while converting seo to query");
+            return resolution.target("/internal/");
+        }
+    }
+
+    private void recordRouteMatch(boolean firstPass, long start, String route) {
+        if (firstPass) {
+            meterRegistry.timer("routing.route.match", "route", route).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The ERP lookups of one resolution. An unavailable ERP reads as "no rows", as it always
+     * did, but the failure is remembered. In deferred mode an unfinished lookup aborts the
+     * pass with {@link LookupsPending} instead of blocking; the replayed pass gets the same
+     * futures back. The keywords and values looked up and the keywords and Shopify ids
+     * returned are collected for the {@link CacheIndex}.
+     */
+    private final class Lookups {
+        private final boolean deferred;
+        private final Map<List<Object>, CompletableFuture<List<SeoDataResponseDTO>>> started = new HashMap<>();
+        private final Set<String> keywords = new HashSet<>();
+        private final Set<String> shopifyIds = new HashSet<>();
+        private boolean failed;
+
+        Lookups(boolean deferred) {
+            this.deferred = deferred;
+        }
+
+        CompletableFuture<List<SeoDataResponseDTO>> fetch(List<String> parts, int storeId, int languageId, String type) {
+            keywords.addAll(parts);
+            return started.computeIfAbsent(List.of(parts, storeId, languageId, type),
+                    k -> seoDataService.fetchAsync(parts, storeId, languageId, type));
+        }
+
+        List<SeoDataResponseDTO> rows(CompletableFuture<List<SeoDataResponseDTO>> lookup) {
+            if (deferred && !lookup.isDone()) {
+                throw new LookupsPending();
+            }
+            try {
+                List<SeoDataResponseDTO> rows = lookup.join();
+                for (SeoDataResponseDTO row : rows) {
+                    if (row.getKeyword() != null) {
+                        keywords.add(row.getKeyword());
+                    }
+                    if (row.getShopifyId() != null) {
+                        shopifyIds.add(row.getShopifyId());
+                    }
+                }
+                // a copy, since the resolution appends to it and a replayed pass reads it again
+                return new ArrayList<>(rows);
+            } catch (CompletionException e) {
+                failed = true;
+                log.warn("SEO lookup failed, resolving without it: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+
+        CompletableFuture<Void> allDone() {
+            return CompletableFuture.allOf(started.values().toArray(CompletableFuture[]::new)).handle((ignored, error) -> null);
+        }
+    }
+
+    private static final class LookupsPending extends RuntimeException {
+        LookupsPending() {
+            super(null, null, false, false);
+        }
+    }
+
+    private String fetchSortValue(String sortValue, String orderValue) {
+        if (sortValue == null) return null;
+
+        sortValue = sortValue.trim().toLowerCase();
+        orderValue = orderValue != null ? orderValue.trim().toUpperCase() : "";
+
+        switch (sortValue) {
+            case "p.sold":
+                if ("DESC".equals(orderValue)) return "BEST_SELLING";
+                break;
+
+            case "p.price":
+                if ("ASC".equals(orderValue)) return "PRICE_ASC";
+                if ("DESC".equals(orderValue)) return "PRICE_DESC";
+                break;
+
+            case "p.product_id":
+                if ("DESC".equals(orderValue)) return "CREATED_DESC";
+                break;
+
+            case "p.sort_order":
+                if ("ASC".equals(orderValue)) return "MANUAL";
+                break;
+//
+//            case "created":
+//                return "CREATED";
+//                break;
+//
+//            case "alpha":
+//                if ("ASC".equals(orderValue)) return "ALPHA_ASC";
+//                if ("DESC".equals(orderValue)) return "ALPHA_DESC";
+//                break;
+            default:
+                return null;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,155 @@
+package com.abelini_routing_middleware.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass scanning of request paths, query strings and value lists for the resolve hot
+ * path. Tokens are cut with {@code indexOf}/{@code substring} only: no regex splits, arrays
+ * or streams, and nothing is copied unless it has to change.
+ */
+public final class UrlTokenizer {
+    private static final String[][] STONE_SUFFIXES = {{"-lbg", "lbg"}, {"-msnt", "msnt"}};
+
+    private UrlTokenizer() {
+    }
+
+    /**
+     * @param segments  the non-blank path segments with stone-type suffixes removed; mutable
+     * @param stoneType {@code lbg} or {@code msnt} from the last segment carrying a suffix, or {@code null}
+     */
+    public record PathTokens(List<String> segments, String stoneType) {
+    }
+
+    public static PathTokens path(String path) {
+        List<String> segments = new ArrayList<>(8);
+        String stoneType = null;
+        int length = path.length();
+        int start = 0;
+        while (start <= length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                String segment = path.substring(start, end);
+                if (!segment.isBlank()) {
+                    for (String[] suffix : STONE_SUFFIXES) {
+                        if (segment.contains(suffix[0])) {
+                            stoneType = suffix[1];
+                            segment = segment.replace(suffix[0], "");
+                            break;
+                        }
+                    }
+                    segments.add(segment);
+                }
+            }
+            start = end + 1;
+        }
+        return new PathTokens(segments, stoneType);
+    }
+
+    /**
+     * Calls {@code action} with the raw name and value of each {@code &}-separated parameter,
+     * split at the first {@code =}. The value is {@code null} for a parameter without one;
+     * empty parameters are skipped.
+     */
+    public static void forEachParam(String query, BiConsumer<String, String> action) {
+        if (query == null) {
+            return;
+        }
+        int length = query.length();
+        int start = 0;
+        while (start < length) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                int eq = query.indexOf('=', start);
+                if (eq < 0 || eq > end) {
+                    action.accept(query.substring(start, end), null);
+                } else {
+                    action.accept(query.substring(start, eq), query.substring(eq + 1, end));
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Calls {@code action} with each non-empty token of {@code value} split on {@code separator}.
+     */
+    public static void forEachToken(String value, char separator, Consumer<String> action) {
+        if (value == null) {
+            return;
+        }
+        int length = value.length();
+        int start = 0;
+        while (start < length) {
+            int end = value.indexOf(separator, start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                action.accept(value.substring(start, end));
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Union of two comma-separated lists, keeping first-seen order and dropping duplicates
+     * and empty entries. Shaped to fit {@link java.util.Map#merge}.
+     */
+    public static String mergeValues(String existing, String added) {
+        StringBuilder merged = new StringBuilder(existing.length() + added.length() + 1);
+        appendDistinct(merged, existing);
+        appendDistinct(merged, added);
+        return merged.toString();
+    }
+
+    private static void appendDistinct(StringBuilder merged, String list) {
+        int length = list.length();
+        int start = 0;
+        while (start < length) {
+            int end = list.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start && !containsToken(merged, list, start, end)) {
+                if (!merged.isEmpty()) {
+                    merged.append(',');
+                }
+                merged.append(list, start, end);
+            }
+            start = end + 1;
+        }
+    }
+
+    // whether the comma-separated list in merged already holds token[start, end)
+    private static boolean containsToken(StringBuilder merged, String token, int start, int end) {
+        int tokenLength = end - start;
+        int length = merged.length();
+        int from = 0;
+        while (from < length) {
+            int to = merged.indexOf(",", from);
+            if (to < 0) {
+                to = length;
+            }
+            if (to - from == tokenLength) {
+                boolean same = true;
+                for (int i = 0; i < tokenLength && same; i++) {
+                    same = merged.charAt(from + i) == token.charAt(start + i);
+                }
+                if (same) {
+                    return true;
+                }
+            }
+            from = to + 1;
+        }
+        return false;
+    }
+}
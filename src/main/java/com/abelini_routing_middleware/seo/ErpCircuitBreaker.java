@@ -0,0 +1,83 @@
+package com.abelini_routing_middleware.seo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stops sending keyword lookups to an ERP that keeps failing. After
+ * {@code seo.circuit-breaker.failure-threshold} failures in a row (errors, or no response within
+ * {@code seo.erp.timeout-ms}) the circuit opens and lookups fail at once
+ * with {@link SeoDataUnavailableException} (so nothing is cached and routing falls back as for any outage) for
+ * {@code seo.circuit-breaker.open-ms}; then a single probe is let through, which closes the circuit if it
+ * succeeds and opens it again if not.
+ * <p>
+ * The state is exported as {@code seo.circuit.open} (1 while open) and rejected lookups are counted in
+ * {@code seo.circuit.rejected}.
+ */
+@Log4j2
+@Component
+public class ErpCircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // System.nanoTime() until which the circuit stays open; 0 while closed
+    private final AtomicLong openUntil = new AtomicLong();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private final Counter rejected;
+
+    public ErpCircuitBreaker(MeterRegistry meterRegistry,
+                             @Value("${seo.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                             @Value("${seo.circuit-breaker.open-ms:10000}") long openMs) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.rejected = meterRegistry.counter("seo.circuit.rejected");
+        meterRegistry.gauge("seo.circuit.open", this, breaker -> breaker.isOpen() ? 1 : 0);
+    }
+
+    /**
+     * Whether a lookup may go to the ERP now. A caller that gets {@code true} must report the outcome with
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public boolean tryAcquire() {
+        long until = openUntil.get();
+        if (until == 0) {
+            return true;
+        }
+        if (System.nanoTime() - until >= 0 && probing.compareAndSet(false, true)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        probing.set(false);
+        if (openUntil.getAndSet(0) != 0) {
+            log.info("ERP circuit closed");
+        }
+    }
+
+    public void onFailure() {
+        boolean probe = probing.getAndSet(false);
+        if (probe || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            long until = System.nanoTime() + openNanos;
+            // 0 means closed
+            if (openUntil.getAndSet(until == 0 ? 1 : until) == 0) {
+                log.warn("ERP circuit opened after {} failures in a row", consecutiveFailures.get());
+            }
+        }
+    }
+
+    public boolean isOpen() {
+        return openUntil.get() != 0;
+    }
+}
@@ -0,0 +1,257 @@
+package com.abelini_routing_middleware.seo;
+
+import com.abelini_routing_middleware.cache.CacheIndex;
+import com.abelini_routing_middleware.dto.SeoChange;
+import com.abelini_routing_middleware.dto.SeoChangeBatch;
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Applies SEO URL changes pushed by the ERP, so routing follows a keyword edit within a request or two instead of
+ * waiting for the index delta or the 7-day {@code seoToQuery} TTL.
+ * <p>
+ * A batch is accepted once, in sequence: its number is claimed in Redis ({@code seo.change-feed.sequence-key})
+ * before it is applied, atomically and only as the last number + 1 (any positive number for the first batch), and
+ * handed back if applying it fails. An already claimed batch is acknowledged without being applied again and a gap
+ * is refused with the expected number, so the ERP replays from there. Per batch, in one pass:
+ * <ol>
+ *     <li>the rows are applied to {@link SeoKeywordIndex} and their tokens dropped from {@link SeoKeywordCache},
+ *     here and (through {@code seo.change-feed.channel}) on every other node;</li>
+ *     <li>the {@code seoToQuery} entries the {@link CacheIndex} has for their keywords, values and Shopify ids
+ *     are evicted, so the next request resolves them again.</li>
+ * </ol>
+ * Deletes and the {@code previous} side of updates are applied as rows with status "0".
+ */
+@Log4j2
+@Service
+public class SeoChangeFeed implements MessageListener {
+    private static final TypeReference<List<SeoDataResponseDTO>> ROWS = new TypeReference<>() {
+    };
+    // {1, last} when ARGV[1] was claimed (last + 1, or any first batch), {0, last} when applied already, {-1, last}
+    // on a gap; last is 0 while unset
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM = new DefaultRedisScript<>(
+            "local last = redis.call('get', KEYS[1]) "
+            + "local seq = tonumber(ARGV[1]) "
+            + "if not last then redis.call('set', KEYS[1], ARGV[1]) return {1, 0} end "
+            + "last = tonumber(last) "
+            + "if seq <= last then return {0, last} end "
+            + "if seq ~= last + 1 then return {-1, last} end "
+            + "redis.call('set', KEYS[1], ARGV[1]) return {1, last}", List.class);
+    // hands a claimed number back after a failed apply, unless a later batch has been claimed since
+    private static final RedisScript<Long> UNCLAIM = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) ~= ARGV[1] then return 0 end "
+            + "if ARGV[2] == '0' then redis.call('del', KEYS[1]) else redis.call('set', KEYS[1], ARGV[2]) end "
+            + "return 1", Long.class);
+
+    private final SeoKeywordIndex seoKeywordIndex;
+    private final SeoKeywordCache seoKeywordCache;
+    private final CacheIndex cacheIndex;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final byte[] token;
+    private final String channel;
+    private final String sequenceKey;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public SeoChangeFeed(SeoKeywordIndex seoKeywordIndex, SeoKeywordCache seoKeywordCache, CacheIndex cacheIndex,
+                         CacheManager cacheManager, StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${seo.change-feed.token:}") String token,
+                         @Value("${seo.change-feed.channel:seo-change-feed}") String channel,
+                         @Value("${seo.change-feed.sequence-key:seo:change-feed:sequence}") String sequenceKey) {
+        this.seoKeywordIndex = seoKeywordIndex;
+        this.seoKeywordCache = seoKeywordCache;
+        this.cacheIndex = cacheIndex;
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.channel = channel;
+        this.sequenceKey = sequenceKey;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public ResponseEntity<?> ingest(String authorization, SeoChangeBatch batch) {
+        Map<String, Object> response = new HashMap<>();
+        if (!authorized(authorization)) {
+            response.put("status", "error");
+            response.put("message", "Unauthorized");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        if (batch == null || batch.getChanges() == null) {
+            response.put("status", "error");
+            response.put("message", "'changes' must be provided.");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (batch.getSequence() < 1) {
+            response.put("status", "error");
+            response.put("message", "'sequence' must be positive.");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        // claimed before it is applied, so two deliveries of a batch (or two nodes) cannot both apply it
+        List<?> claim = redisTemplate.execute(CLAIM, List.of(sequenceKey), String.valueOf(batch.getSequence()));
+        long outcome = ((Number) claim.get(0)).longValue();
+        long last = ((Number) claim.get(1)).longValue();
+        if (outcome == 0) {
+            response.put("status", "duplicate");
+            response.put("message", "Batch " + batch.getSequence() + " was applied already.");
+            response.put("lastSequence", last);
+            return ResponseEntity.ok(response);
+        }
+        if (outcome < 0) {
+            response.put("status", "error");
+            response.put("message", "Expected batch " + (last + 1) + ", replay from there.");
+            response.put("expectedSequence", last + 1);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        List<SeoDataResponseDTO> rows;
+        Set<String> keys;
+        try {
+            rows = rowsOf(batch.getChanges());
+            applyLocally(rows);
+            publish(rows);
+            Cache cache = cacheManager.getCache("seoToQuery");
+            keys = affectedKeys(rows);
+            if (cache != null) {
+                cacheIndex.evict(cache, keys);
+            }
+        } catch (RuntimeException e) {
+            // so the ERP's retry of this batch is applied rather than acknowledged as a duplicate
+            redisTemplate.execute(UNCLAIM, List.of(sequenceKey), String.valueOf(batch.getSequence()), String.valueOf(last));
+            throw e;
+        }
+        meterRegistry.counter("seo.change-feed.rows").increment(rows.size());
+        log.info("SEO change batch {} applied: {} changes, {} seoToQuery entries evicted", batch.getSequence(),
+                batch.getChanges().size(), keys.size());
+
+        response.put("status", "success");
+        response.put("sequence", batch.getSequence());
+        response.put("changes", batch.getChanges().size());
+        response.put("evicted", keys.size());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * A batch applied by another node: only the local keyword data needs it, the shared cache was handled there.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        try {
+            applyLocally(objectMapper.readValue(body.substring(separator + 1), ROWS));
+        } catch (Exception e) {
+            log.error("Could not apply SEO changes from another node: {}", e.getMessage());
+        }
+    }
+
+    private void applyLocally(List<SeoDataResponseDTO> rows) {
+        seoKeywordIndex.apply(rows);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (SeoDataResponseDTO row : rows) {
+            addLowerCase(tokens, row.getKeyword());
+            addLowerCase(tokens, row.getValue());
+        }
+        seoKeywordCache.invalidate(tokens);
+    }
+
+    private void publish(List<SeoDataResponseDTO> rows) {
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + "|" + objectMapper.writeValueAsString(rows));
+        } catch (Exception e) {
+            // the other nodes catch up with their next index delta
+            log.error("Failed to publish SEO changes: {}", e.getMessage());
+        }
+    }
+
+    private Set<String> affectedKeys(List<SeoDataResponseDTO> rows) {
+        Set<String> tokens = new LinkedHashSet<>();
+        Set<String> shopifyIds = new LinkedHashSet<>();
+        for (SeoDataResponseDTO row : rows) {
+            addLowerCase(tokens, row.getKeyword());
+            addLowerCase(tokens, row.getValue());
+            if (row.getShopifyId() != null && !row.getShopifyId().isEmpty()) {
+                shopifyIds.add(row.getShopifyId());
+            }
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (String token : tokens) {
+            keys.addAll(cacheIndex.keysForKeyword(token));
+        }
+        for (String shopifyId : shopifyIds) {
+            keys.addAll(cacheIndex.keysForShopifyId(shopifyId));
+        }
+        return keys;
+    }
+
+    private static List<SeoDataResponseDTO> rowsOf(List<SeoChange> changes) {
+        List<SeoDataResponseDTO> rows = new ArrayList<>(changes.size());
+        for (SeoChange change : changes) {
+            if (change.getPrevious() != null) {
+                rows.add(removed(change.getPrevious()));
+            }
+            if (change.getRow() != null) {
+                rows.add("delete".equalsIgnoreCase(change.getOp()) ? removed(change.getRow()) : change.getRow());
+            }
+        }
+        return rows;
+    }
+
+    private static SeoDataResponseDTO removed(SeoDataResponseDTO row) {
+        return new SeoDataResponseDTO(row.getSeoUrlId(), row.getStoreId(), row.getLanguageId(), row.getKey(),
+                row.getValue(), row.getKeyword(), row.getShopifyId(), row.getSortOrder(), "0");
+    }
+
+    private static void addLowerCase(Set<String> tokens, String token) {
+        if (token != null && !token.isEmpty()) {
+            tokens.add(token.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    // an unset token disables the feed
+    private boolean authorized(String authorization) {
+        if (token.length == 0 || authorization == null) {
+            return false;
+        }
+        String presented = authorization.regionMatches(true, 0, "Bearer ", 0, 7) ? authorization.substring(7) : authorization;
+        return MessageDigest.isEqual(token, presented.trim().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,143 @@
+package com.abelini_routing_middleware.seo;
+
+import com.abelini_routing_middleware.dto.SeoDataRequest;
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+import com.abelini_routing_middleware.dto.SeoDataSyncRequest;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+/**
+ * Raw access to the ERP {@code seo_data.php} endpoint. Callers should go through
+ * {@link SeoDataService}, which answers from the local index first. Lookups are timed as
+ * {@code seo.erp.request}, tagged with the lookup {@code type} and outcome, and go through
+ * the {@link ErpCircuitBreaker}.
+ */
+@Log4j2
+@Component
+public class SeoDataClient {
+    private static final TypeReference<List<SeoDataResponseDTO>> ROWS = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ErpCircuitBreaker circuitBreaker;
+    private final HttpClient client;
+
+    @Value("${seo.data.api.url}")
+    private String API_URL;
+    @Value("${seo.index.sync.url:${seo.data.api.url}}")
+    private String syncUrl;
+    @Value("${abelini_jwt_token}")
+    private String jwtTokenAbelini;
+    // a timed-out lookup fails like any other ERP error and counts towards opening the circuit
+    @Value("${seo.erp.timeout-ms:5000}")
+    private long timeoutMs;
+
+    public SeoDataClient(ObjectMapper objectMapper, MeterRegistry meterRegistry, ErpCircuitBreaker circuitBreaker,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreaker;
+        HttpClient.Builder builder = HttpClient.newBuilder();
+        if (virtualThreads) {
+            // response handling and the lookups chained onto it run on virtual threads as well
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        this.client = builder.build();
+    }
+
+    public List<SeoDataResponseDTO> fetch(List<String> pathParts, int storeId, int languageId, String type) {
+        try {
+            return fetchAsync(pathParts, storeId, languageId, type).join();
+        } catch (CompletionException e) {
+            throw (SeoDataUnavailableException) e.getCause();
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetch}, so independent lookups can share one ERP
+     * round trip. An empty list means the ERP knows none of the parts; any failure
+     * completes the future with {@link SeoDataUnavailableException} instead, so callers
+     * never mistake an outage for a miss.
+     */
+    public CompletableFuture<List<SeoDataResponseDTO>> fetchAsync(List<String> pathParts, int storeId, int languageId, String type) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(post(API_URL, new SeoDataRequest(pathParts, storeId, languageId, type)), (name, value) -> true)
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .build();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new SeoDataUnavailableException("Could not encode SEO data request", e));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new SeoDataUnavailableException("ERP circuit open"));
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(this::readRows)
+                .handle((rows, e) -> {
+                    sample.stop(meterRegistry.timer("seo.erp.request", "type", String.valueOf(type), "outcome", e == null ? "success" : "error"));
+                    if (e == null) {
+                        circuitBreaker.onSuccess();
+                        return rows;
+                    }
+                    circuitBreaker.onFailure();
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.error("exception while fetch SEO data: {}", cause.getMessage(), cause);
+                    throw cause instanceof SeoDataUnavailableException unavailable
+                            ? unavailable
+                            : new SeoDataUnavailableException("SEO data request failed", cause);
+                });
+    }
+
+    private List<SeoDataResponseDTO> readRows(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new SeoDataUnavailableException("Failed to fetch SEO data: " + response.statusCode());
+        }
+        try {
+            return objectMapper.readValue(response.body(), ROWS);
+        } catch (IOException e) {
+            throw new SeoDataUnavailableException("Unreadable SEO data response", e);
+        }
+    }
+
+    /**
+     * Fetches one page of the keyword table for the index. Unlike {@link #fetch} this
+     * throws on failure, so a broken sync never replaces a good index with an empty one.
+     */
+    public List<SeoDataResponseDTO> export(SeoDataSyncRequest requestBody) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(post(syncUrl, requestBody), (name, value) -> true)
+                .timeout(Duration.ofMinutes(2))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("SEO data export failed with status " + response.statusCode());
+        }
+        return objectMapper.readValue(response.body(), ROWS);
+    }
+
+    private HttpRequest post(String url, Object body) throws IOException {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("Authorization", jwtTokenAbelini)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package com.abelini_routing_middleware.seo;
+
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keyword lookups for the resolver. Each distinct token is answered from
+ * {@link SeoKeywordIndex} (including its known-miss filter), then {@link SeoKeywordCache};
+ * the remaining tokens go to the ERP in a single batched request, and tokens already
+ * being fetched by a concurrent lookup wait for that request instead of issuing their own.
+ * <p>
+ * Each call is timed as {@code seo.fetch} and each token counted in {@code seo.tokens} by
+ * where its answer came from, both tagged with the lookup {@code type}.
+ */
+@Service
+public class SeoDataService {
+    private final SeoKeywordIndex seoKeywordIndex;
+    private final SeoKeywordCache seoKeywordCache;
+    private final SeoDataClient seoDataClient;
+    private final MeterRegistry meterRegistry;
+    private final Map<SeoTokenKey, CompletableFuture<List<SeoDataResponseDTO>>> inFlight = new ConcurrentHashMap<>();
+
+    public SeoDataService(SeoKeywordIndex seoKeywordIndex, SeoKeywordCache seoKeywordCache, SeoDataClient seoDataClient,
+                          MeterRegistry meterRegistry) {
+        this.seoKeywordIndex = seoKeywordIndex;
+        this.seoKeywordCache = seoKeywordCache;
+        this.seoDataClient = seoDataClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Same contract as the ERP endpoint (rows matching any of {@code pathParts}), but the
+     * result is always a mutable list ordered by the position of each part in the path.
+     */
+    public List<SeoDataResponseDTO> fetch(List<String> pathParts, int storeId, int languageId, String type) {
+        try {
+            return fetchAsync(pathParts, storeId, languageId, type).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof SeoDataUnavailableException unavailable ? unavailable : e;
+        }
+    }
+
+    /**
+     * Non-blocking {@link #fetch}: cached tokens are answered immediately and at most one
+     * ERP request is started for the rest. If that request fails the future completes
+     * with {@link SeoDataUnavailableException} and nothing is cached.
+     */
+    public CompletableFuture<List<SeoDataResponseDTO>> fetchAsync(List<String> pathParts, int storeId, int languageId, String type) {
+        if (pathParts == null || pathParts.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return lookup(pathParts, storeId, languageId, type).whenComplete((rows, error) -> sample.stop(meterRegistry.timer("seo.fetch",
+                "type", String.valueOf(type), "outcome", error == null ? "success" : "error")));
+    }
+
+    private CompletableFuture<List<SeoDataResponseDTO>> lookup(List<String> pathParts, int storeId, int languageId, String type) {
+
+        Map<String, List<SeoDataResponseDTO>> known = new HashMap<>();
+        Map<String, CompletableFuture<List<SeoDataResponseDTO>>> waiting = new HashMap<>();
+        Map<String, CompletableFuture<List<SeoDataResponseDTO>>> claimed = new LinkedHashMap<>();
+        for (String part : new LinkedHashSet<>(pathParts)) {
+            SeoTokenKey tokenKey = new SeoTokenKey(storeId, languageId, type, part);
+            String source = "index";
+            List<SeoDataResponseDTO> rows = seoKeywordIndex.find(part, storeId, languageId, type);
+            if (rows == null && seoKeywordIndex.isKnownMiss(part, storeId, languageId, type)) {
+                source = "known-miss";
+                rows = List.of();
+            }
+            if (rows == null) {
+                source = "cache";
+                rows = seoKeywordCache.get(tokenKey);
+            }
+            if (rows != null) {
+                known.put(part, rows);
+            } else {
+                CompletableFuture<List<SeoDataResponseDTO>> claim = new CompletableFuture<>();
+                CompletableFuture<List<SeoDataResponseDTO>> existing = inFlight.putIfAbsent(tokenKey, claim);
+                if (existing != null) {
+                    source = "shared";
+                    waiting.put(part, existing);
+                } else {
+                    source = "erp";
+                    claimed.put(part, claim);
+                }
+            }
+            meterRegistry.counter("seo.tokens", "type", String.valueOf(type), "source", source).increment();
+        }
+
+        if (claimed.isEmpty() && waiting.isEmpty()) {
+            return CompletableFuture.completedFuture(mergeInPathOrder(pathParts, known, List.of(), type));
+        }
+
+        CompletableFuture<List<SeoDataResponseDTO>> remote = claimed.isEmpty()
+                ? CompletableFuture.completedFuture(List.of())
+                : seoDataClient.fetchAsync(new ArrayList<>(claimed.keySet()), storeId, languageId, type)
+                        .whenComplete((rows, error) -> settle(claimed, rows, error, storeId, languageId, type));
+
+        List<CompletableFuture<?>> all = new ArrayList<>(waiting.values());
+        all.add(remote);
+        return CompletableFuture.allOf(all.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            waiting.forEach((part, future) -> known.put(part, future.join()));
+            return mergeInPathOrder(pathParts, known, remote.join(), type);
+        });
+    }
+
+    /**
+     * Splits a batch response per token, caches each token's rows (an empty list being a
+     * negative entry) and releases anyone waiting on them. A failed batch caches nothing
+     * and fails the waiters too.
+     */
+    private void settle(Map<String, CompletableFuture<List<SeoDataResponseDTO>>> claimed, List<SeoDataResponseDTO> rows,
+                        Throwable error, int storeId, int languageId, String type) {
+        Map<String, List<SeoDataResponseDTO>> byToken = new HashMap<>();
+        // a row we cannot attribute (collation quirks) makes the misses in this batch unsafe to remember
+        boolean attributed = true;
+        if (rows != null) {
+            for (SeoDataResponseDTO row : rows) {
+                String token = matchedToken(row, type);
+                String part = token == null ? null : claimed.keySet().stream()
+                        .filter(token::equalsIgnoreCase).findFirst().orElse(null);
+                if (part != null) {
+                    byToken.computeIfAbsent(part, t -> new ArrayList<>()).add(row);
+                } else {
+                    attributed = false;
+                }
+            }
+        }
+        for (Map.Entry<String, CompletableFuture<List<SeoDataResponseDTO>>> claim : claimed.entrySet()) {
+            SeoTokenKey tokenKey = new SeoTokenKey(storeId, languageId, type, claim.getKey());
+            inFlight.remove(tokenKey, claim.getValue());
+            if (error != null) {
+                claim.getValue().completeExceptionally(error);
+                continue;
+            }
+            List<SeoDataResponseDTO> tokenRows = byToken.getOrDefault(claim.getKey(), List.of());
+            if (!tokenRows.isEmpty() || attributed) {
+                seoKeywordCache.put(tokenKey, tokenRows);
+            }
+            claim.getValue().complete(tokenRows);
+        }
+    }
+
+    static List<SeoDataResponseDTO> mergeInPathOrder(List<String> pathParts,
+                                                     Map<String, List<SeoDataResponseDTO>> known,
+                                                     List<SeoDataResponseDTO> remote,
+                                                     String type) {
+        List<SeoDataResponseDTO> merged = new ArrayList<>(pathParts.size() + remote.size());
+        List<SeoDataResponseDTO> unmatched = new ArrayList<>(remote);
+        for (String part : new LinkedHashSet<>(pathParts)) {
+            List<SeoDataResponseDTO> rows = known.get(part);
+            if (rows != null) {
+                merged.addAll(rows);
+                continue;
+            }
+            for (SeoDataResponseDTO row : remote) {
+                if (part.equalsIgnoreCase(matchedToken(row, type)) && unmatched.remove(row)) {
+                    merged.add(row);
+                }
+            }
+        }
+        // rows the ERP matched on something other than the token itself are kept, just last
+        merged.addAll(unmatched);
+        return merged;
+    }
+
+    static String matchedToken(SeoDataResponseDTO row, String type) {
+        return "value".equals(type) ? row.getValue() : row.getKeyword();
+    }
+}
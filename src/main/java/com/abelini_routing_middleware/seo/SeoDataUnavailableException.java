@@ -0,0 +1,16 @@
+package com.abelini_routing_middleware.seo;
+
+/**
+ * The ERP could not answer a lookup (transport error, non-200 or unreadable body).
+ * Kept distinct from an empty result so failures are never cached as "not found".
+ */
+public class SeoDataUnavailableException extends RuntimeException {
+
+    public SeoDataUnavailableException(String message) {
+        super(message);
+    }
+
+    public SeoDataUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
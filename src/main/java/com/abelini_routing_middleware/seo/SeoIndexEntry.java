@@ -0,0 +1,99 @@
+package com.abelini_routing_middleware.seo;
+
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+
+/**
+ * Compact, immutable form of one {@code seo_url} row held by {@link SeoKeywordIndex}.
+ * Numeric ids are kept as primitive longs, low-cardinality strings are interned and
+ * rows sharing a keyword or value are chained through {@link #next}.
+ */
+final class SeoIndexEntry {
+    static final long NO_ID = Long.MIN_VALUE;
+
+    final long seoUrlId;
+    final String key;
+    final String value;
+    final String keyword;
+    final long shopifyId;
+    // only set when the shopify id is not a plain number (filter values such as "1.6")
+    final String shopifyIdText;
+    final String sortOrder;
+    final String status;
+    final SeoIndexEntry next;
+
+    private SeoIndexEntry(long seoUrlId, String key, String value, String keyword, long shopifyId,
+                          String shopifyIdText, String sortOrder, String status, SeoIndexEntry next) {
+        this.seoUrlId = seoUrlId;
+        this.key = key;
+        this.value = value;
+        this.keyword = keyword;
+        this.shopifyId = shopifyId;
+        this.shopifyIdText = shopifyIdText;
+        this.sortOrder = sortOrder;
+        this.status = status;
+        this.next = next;
+    }
+
+    static SeoIndexEntry of(SeoDataResponseDTO row) {
+        long shopifyId = parseId(row.getShopifyId());
+        return new SeoIndexEntry(
+                parseId(row.getSeoUrlId()),
+                intern(row.getKey()),
+                row.getValue(),
+                row.getKeyword(),
+                shopifyId,
+                shopifyId == NO_ID ? row.getShopifyId() : null,
+                intern(row.getSortOrder()),
+                intern(row.getStatus()),
+                null);
+    }
+
+    SeoIndexEntry withNext(SeoIndexEntry next) {
+        return new SeoIndexEntry(seoUrlId, key, value, keyword, shopifyId, shopifyIdText, sortOrder, status, next);
+    }
+
+    boolean sameRow(SeoIndexEntry other) {
+        return seoUrlId != NO_ID ? seoUrlId == other.seoUrlId : key.equals(other.key) && shopifyIdEquals(other);
+    }
+
+    SeoDataResponseDTO toDto(int storeId, int languageId) {
+        return new SeoDataResponseDTO(
+                seoUrlId == NO_ID ? null : Long.toString(seoUrlId),
+                Integer.toString(storeId),
+                Integer.toString(languageId),
+                key,
+                value,
+                keyword,
+                shopifyIdText != null ? shopifyIdText : (shopifyId == NO_ID ? null : Long.toString(shopifyId)),
+                sortOrder,
+                status);
+    }
+
+    private boolean shopifyIdEquals(SeoIndexEntry other) {
+        return shopifyId == other.shopifyId
+               && (shopifyIdText == null ? other.shopifyIdText == null : shopifyIdText.equals(other.shopifyIdText));
+    }
+
+    /**
+     * Parses a decimal id, returning {@link #NO_ID} unless the text round-trips exactly
+     * (so "0123" or "1.6" are kept as text instead of being silently changed).
+     */
+    static long parseId(String text) {
+        if (text == null || text.isEmpty() || text.length() > 18) {
+            return NO_ID;
+        }
+        long result = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9' || (i == 0 && c == '0' && text.length() > 1)) {
+                return NO_ID;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static String intern(String s) {
+        return s == null ? null : s.intern();
+    }
+}
@@ -0,0 +1,73 @@
+package com.abelini_routing_middleware.seo;
+
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Per-token cache of ERP rows, keyed by (storeId, languageId, type, keyword). Unlike
+ * {@code seoToQuery} it is shared by every URL that contains the token, so crawlers
+ * walking filter permutations of one category only fetch each token once. Tokens the
+ * ERP answered with no rows are kept as empty lists under the shorter negative TTL.
+ */
+@Component
+public class SeoKeywordCache {
+    private final Cache<SeoTokenKey, List<SeoDataResponseDTO>> tokens;
+
+    public SeoKeywordCache(@Value("${seo.token-cache.maximum-size:200000}") long maximumSize,
+                           @Value("${seo.token-cache.ttl-seconds:3600}") long ttlSeconds,
+                           @Value("${seo.token-cache.negative-ttl-seconds:300}") long negativeTtlSeconds) {
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<SeoTokenKey, List<SeoDataResponseDTO>>() {
+                    @Override
+                    public long expireAfterCreate(SeoTokenKey key, List<SeoDataResponseDTO> rows, long currentTime) {
+                        return rows.isEmpty() ? negativeTtlNanos : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(SeoTokenKey key, List<SeoDataResponseDTO> rows, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, rows, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(SeoTokenKey key, List<SeoDataResponseDTO> rows, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    List<SeoDataResponseDTO> get(SeoTokenKey key) {
+        return tokens.getIfPresent(key);
+    }
+
+    void put(SeoTokenKey key, List<SeoDataResponseDTO> rows) {
+        tokens.put(key, List.copyOf(rows));
+    }
+
+    /**
+     * Drops every cached token in {@code lowerCaseTokens}, whatever its case, store, language or type, in one pass.
+     */
+    void invalidate(Set<String> lowerCaseTokens) {
+        if (!lowerCaseTokens.isEmpty()) {
+            tokens.asMap().keySet().removeIf(key -> key.token() != null
+                    && lowerCaseTokens.contains(key.token().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    public Cache<SeoTokenKey, List<SeoDataResponseDTO>> getNativeCache() {
+        return tokens;
+    }
+}
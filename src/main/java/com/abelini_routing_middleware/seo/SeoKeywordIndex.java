@@ -0,0 +1,269 @@
+package com.abelini_routing_middleware.seo;
+
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+import com.abelini_routing_middleware.dto.SeoDataSyncRequest;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the ERP keyword table, partitioned by store and language.
+ * <p>
+ * Each partition is bulk loaded on startup, kept current from a "changed since" delta
+ * on a fixed delay and fully rebuilt once a day so renamed keywords do not linger.
+ * Lookups never touch the network; a {@code null} answer means "not indexed" and the
+ * caller falls back to {@link SeoDataClient}, unless the partition's Bloom filter of
+ * known keywords and values already rules the token out ({@link #isKnownMiss}).
+ */
+@Log4j2
+@Component
+public class SeoKeywordIndex {
+    // re-read a little of the previous window so rows committed during a sync are not missed
+    private static final long DELTA_OVERLAP_SECONDS = 60;
+
+    private final SeoDataClient seoDataClient;
+    private final Map<Long, Partition> partitions = new ConcurrentHashMap<>();
+
+    @Value("${seo.index.enabled:true}")
+    private boolean enabled;
+    @Value("${seo.index.store-languages:0:1}")
+    private String[] storeLanguages;
+    @Value("${seo.index.page-size:5000}")
+    private int pageSize;
+    @Value("${seo.index.known-keyword-filter.enabled:true}")
+    private boolean knownKeywordFilter;
+    @Value("${seo.index.known-keyword-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    public SeoKeywordIndex(SeoDataClient seoDataClient) {
+        this.seoDataClient = seoDataClient;
+    }
+
+    /**
+     * Returns the indexed rows for one keyword ({@code type = "keyword"}) or filter value
+     * ({@code type = "value"}), or {@code null} when the index cannot answer.
+     */
+    public List<SeoDataResponseDTO> find(String token, int storeId, int languageId, String type) {
+        Partition partition = partitions.get(partitionKey(storeId, languageId));
+        if (partition == null || token == null) {
+            return null;
+        }
+        Map<String, SeoIndexEntry> lookup = switch (type) {
+            case "keyword" -> partition.byKeyword;
+            case "value" -> partition.byValue;
+            default -> null;
+        };
+        SeoIndexEntry head = lookup != null ? lookup.get(token) : null;
+        if (head == null) {
+            return null;
+        }
+        List<SeoDataResponseDTO> rows = new ArrayList<>(1);
+        for (SeoIndexEntry entry = head; entry != null; entry = entry.next) {
+            rows.add(entry.toDto(storeId, languageId));
+        }
+        return rows;
+    }
+
+    /**
+     * {@code true} when the token is definitely not a keyword (or value) of a loaded
+     * partition, so asking the ERP would only confirm the miss. Matching ignores case,
+     * as the ERP lookup does.
+     */
+    public boolean isKnownMiss(String token, int storeId, int languageId, String type) {
+        Partition partition = partitions.get(partitionKey(storeId, languageId));
+        if (partition == null || token == null) {
+            return false;
+        }
+        KeywordBloomFilter filter = switch (type) {
+            case "keyword" -> partition.knownKeywords;
+            case "value" -> partition.knownValues;
+            default -> null;
+        };
+        return filter != null && !filter.mightContain(token.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Applies rows pushed by the ERP change feed to their partitions; rows with status "0" are removed. Rows of
+     * partitions that are not loaded are skipped, their load will have them.
+     */
+    public void apply(Collection<SeoDataResponseDTO> rows) {
+        for (SeoDataResponseDTO row : rows) {
+            try {
+                Partition partition = partitions.get(partitionKey(Integer.parseInt(row.getStoreId()), Integer.parseInt(row.getLanguageId())));
+                if (partition != null) {
+                    partition.apply(row);
+                }
+            } catch (NumberFormatException e) {
+                log.warn("SEO change without a valid store or language id skipped: {}", row);
+            }
+        }
+    }
+
+    public boolean isLoaded(int storeId, int languageId) {
+        return partitions.containsKey(partitionKey(storeId, languageId));
+    }
+
+    public int size() {
+        return partitions.values().stream().mapToInt(p -> p.byKeyword.size()).sum();
+    }
+
+    @Scheduled(initialDelayString = "${seo.index.initial-delay-ms:0}", fixedDelayString = "${seo.index.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        for (String storeLanguage : storeLanguages) {
+            String[] ids = storeLanguage.trim().split(":");
+            int storeId = Integer.parseInt(ids[0]);
+            int languageId = Integer.parseInt(ids[1]);
+            try {
+                Partition partition = partitions.get(partitionKey(storeId, languageId));
+                if (partition == null) {
+                    fullLoad(storeId, languageId);
+                } else {
+                    deltaLoad(partition);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("SEO index sync failed for store {} language {}: {}", storeId, languageId, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(cron = "${seo.index.full-reload-cron:0 30 3 * * *}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        for (Partition partition : partitions.values()) {
+            try {
+                fullLoad(partition.storeId, partition.languageId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("SEO index reload failed for store {} language {}: {}", partition.storeId, partition.languageId, e.getMessage());
+            }
+        }
+    }
+
+    private void fullLoad(int storeId, int languageId) throws IOException, InterruptedException {
+        long startedAt = Instant.now().getEpochSecond();
+        Partition fresh = new Partition(storeId, languageId);
+        int rows = loadPages(fresh, null);
+        fresh.syncedAt = startedAt;
+        if (knownKeywordFilter) {
+            fresh.buildFilters(falsePositiveRate);
+        }
+        partitions.put(partitionKey(storeId, languageId), fresh);
+        log.info("SEO index loaded for store {} language {}: {} rows, {} keywords", storeId, languageId, rows, fresh.byKeyword.size());
+    }
+
+    private void deltaLoad(Partition partition) throws IOException, InterruptedException {
+        long startedAt = Instant.now().getEpochSecond();
+        int rows = loadPages(partition, partition.syncedAt - DELTA_OVERLAP_SECONDS);
+        partition.syncedAt = startedAt;
+        if (rows > 0) {
+            log.info("SEO index delta for store {} language {}: {} rows", partition.storeId, partition.languageId, rows);
+        }
+    }
+
+    private int loadPages(Partition partition, Long changedSince) throws IOException, InterruptedException {
+        int offset = 0;
+        while (true) {
+            List<SeoDataResponseDTO> page = seoDataClient.export(
+                    new SeoDataSyncRequest(partition.storeId, partition.languageId, "export", changedSince, offset, pageSize));
+            for (SeoDataResponseDTO row : page) {
+                partition.apply(row);
+            }
+            offset += page.size();
+            if (page.size() < pageSize) {
+                return offset;
+            }
+        }
+    }
+
+    private static long partitionKey(int storeId, int languageId) {
+        return ((long) storeId << 32) | (languageId & 0xffffffffL);
+    }
+
+    private static final class Partition {
+        final int storeId;
+        final int languageId;
+        final Map<String, SeoIndexEntry> byKeyword = new ConcurrentHashMap<>();
+        final Map<String, SeoIndexEntry> byValue = new ConcurrentHashMap<>();
+        // built once the full load is in; deltas only ever add to them
+        volatile KeywordBloomFilter knownKeywords;
+        volatile KeywordBloomFilter knownValues;
+        // epoch seconds of the start of the last successful sync
+        volatile long syncedAt;
+
+        Partition(int storeId, int languageId) {
+            this.storeId = storeId;
+            this.languageId = languageId;
+        }
+
+        void buildFilters(double falsePositiveRate) {
+            knownKeywords = filterOf(byKeyword.keySet(), falsePositiveRate);
+            knownValues = filterOf(byValue.keySet(), falsePositiveRate);
+        }
+
+        // room for a day of deltas before the nightly reload resizes it
+        private static KeywordBloomFilter filterOf(Set<String> tokens, double falsePositiveRate) {
+            KeywordBloomFilter filter = new KeywordBloomFilter(tokens.size() + tokens.size() / 2, falsePositiveRate);
+            for (String token : tokens) {
+                filter.add(token.toLowerCase(Locale.ROOT));
+            }
+            return filter;
+        }
+
+        void apply(SeoDataResponseDTO row) {
+            SeoIndexEntry entry = SeoIndexEntry.of(row);
+            boolean active = !"0".equals(row.getStatus());
+            if (active) {
+                remember(knownKeywords, row.getKeyword());
+                remember(knownValues, row.getValue());
+            }
+            if (row.getKeyword() != null) {
+                byKeyword.compute(row.getKeyword(), (k, head) -> active ? append(remove(head, entry), entry) : remove(head, entry));
+            }
+            if (row.getValue() != null) {
+                byValue.compute(row.getValue(), (k, head) -> active ? append(remove(head, entry), entry) : remove(head, entry));
+            }
+        }
+
+        private static void remember(KeywordBloomFilter filter, String token) {
+            if (filter != null && token != null) {
+                filter.add(token.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        private static SeoIndexEntry remove(SeoIndexEntry head, SeoIndexEntry row) {
+            if (head == null) {
+                return null;
+            }
+            SeoIndexEntry rest = remove(head.next, row);
+            if (head.sameRow(row)) {
+                return rest;
+            }
+            return rest == head.next ? head : head.withNext(rest);
+        }
+
+        private static SeoIndexEntry append(SeoIndexEntry head, SeoIndexEntry entry) {
+            return head == null ? entry : head.withNext(append(head.next, entry));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.abelini_routing_middleware.seo;
+
+/**
+ * Identifies one keyword or filter value lookup, independent of the path it came from.
+ */
+record SeoTokenKey(int storeId, int languageId, String type, String token) {
+}
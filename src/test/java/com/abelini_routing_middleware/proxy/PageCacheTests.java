@@ -0,0 +1,82 @@
+package com.abelini_routing_middleware.proxy;
+
+import jakarta.servlet.http.Cookie;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageCacheTests {
+    private final PageCache pageCache = new PageCache(true, 30, 120, 1 << 20, 1 << 16, new String[]{"_ga", "_ga_*", "_fbp"});
+
+    @AfterEach
+    void tearDown() {
+        pageCache.close();
+    }
+
+    private static MockHttpServletRequest get(Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rings");
+        if (cookies.length > 0) {
+            request.setCookies(cookies);
+        }
+        return request;
+    }
+
+    private static BasicClassicHttpResponse ok(String... headers) {
+        BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+        for (int i = 0; i < headers.length; i += 2) {
+            response.addHeader(headers[i], headers[i + 1]);
+        }
+        return response;
+    }
+
+    @Test
+    void cachesAnonymousGetsWithOnlyIgnoredCookies() {
+        assertTrue(pageCache.isCacheable(get()));
+        assertTrue(pageCache.isCacheable(get(new Cookie("_ga", "GA1.1"), new Cookie("_ga_X1Y2", "GS1.1"))));
+
+        assertFalse(pageCache.isCacheable(get(new Cookie("_ga", "GA1.1"), new Cookie("currency", "EUR"))));
+        assertFalse(pageCache.isCacheable(get(new Cookie("PHPSESSID", "abc"))));
+
+        MockHttpServletRequest authorized = get();
+        authorized.addHeader("Authorization", "Bearer x");
+        assertFalse(pageCache.isCacheable(authorized));
+        assertFalse(pageCache.isCacheable(new MockHttpServletRequest("POST", "/rings")));
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        PageCache disabled = new PageCache(false, 30, 120, 1 << 20, 1 << 16, new String[0]);
+        try {
+            assertFalse(disabled.isCacheable(get()));
+        } finally {
+            disabled.close();
+        }
+    }
+
+    @Test
+    void freshnessIsTheUpstreamMaxAgeCappedAtTheTtl() {
+        assertEquals(TimeUnit.SECONDS.toNanos(30), pageCache.freshness(ok()));
+        assertEquals(TimeUnit.SECONDS.toNanos(10), pageCache.freshness(ok("Cache-Control", "public, max-age=10")));
+        assertEquals(TimeUnit.SECONDS.toNanos(5), pageCache.freshness(ok("Cache-Control", "max-age=60, s-maxage=5")));
+        assertEquals(TimeUnit.SECONDS.toNanos(30), pageCache.freshness(ok("Cache-Control", "max-age=3600")));
+        assertEquals(TimeUnit.SECONDS.toNanos(30), pageCache.freshness(ok("Vary", "Accept-Encoding", "Content-Encoding", "gzip")));
+    }
+
+    @Test
+    void uncacheableResponsesAreNotStored() {
+        assertEquals(-1, pageCache.freshness(new BasicClassicHttpResponse(404)));
+        assertEquals(-1, pageCache.freshness(ok("Set-Cookie", "PHPSESSID=abc")));
+        assertEquals(-1, pageCache.freshness(ok("Cache-Control", "private, max-age=60")));
+        assertEquals(-1, pageCache.freshness(ok("Cache-Control", "no-store")));
+        assertEquals(-1, pageCache.freshness(ok("Cache-Control", "max-age=0")));
+        assertEquals(-1, pageCache.freshness(ok("Vary", "Accept-Encoding, Cookie")));
+        assertEquals(-1, pageCache.freshness(ok("Content-Encoding", "br")));
+    }
+}
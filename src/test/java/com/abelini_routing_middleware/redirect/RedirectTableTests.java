@@ -0,0 +1,51 @@
+package com.abelini_routing_middleware.redirect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RedirectTableTests {
+
+    private static final RedirectRule.Type EXACT = RedirectRule.Type.EXACT;
+    private static final RedirectRule.Type PREFIX = RedirectRule.Type.PREFIX;
+    private static final RedirectRule.Type PATTERN = RedirectRule.Type.PATTERN;
+
+    private final RedirectTable table = RedirectTable.compile(List.of(
+            new RedirectRule(EXACT, "/old-page", "/new-page", 301),
+            new RedirectRule(PREFIX, "/old-blog", "/blog", 301),
+            new RedirectRule(PREFIX, "/old-blog/archive", "/blog/2019", 302),
+            new RedirectRule(PATTERN, "diamond-rings/classic-solitaire", "engagement-rings/classic-solitaire", 301)
+    ), null);
+
+    @Test
+    void prefersExactThenLongestPrefixThenPattern() {
+        assertEquals("/new-page", table.match("/Old-Page/").location());
+        assertEquals("/blog/Some-Post", table.match("/old-blog/Some-Post").location());
+        assertEquals("/blog", table.match("/old-blog/").location());
+        assertEquals(302, table.match("/old-blog/archive/post").rule().status());
+        assertEquals("/blog/2019/post", table.match("/old-blog/archive/post").location());
+        assertEquals("/engagement-rings/classic-solitaire/yellow-gold",
+                table.match("/diamond-rings/classic-solitaire/yellow-gold").location());
+        assertNull(table.match("/old-blogger"));
+        assertNull(table.match("/engagement-rings"));
+    }
+
+    @Test
+    void keepsHitCountsAcrossReloads() {
+        table.match("/old-page");
+        table.match("/old-page");
+
+        RedirectTable reloaded = RedirectTable.compile(List.of(
+                new RedirectRule(PREFIX, "/old-blog", "/blog", 301),
+                new RedirectRule(EXACT, "/old-page", "/newer-page", 301)
+        ), table);
+
+        assertEquals("/newer-page", reloaded.match("/old-page").location());
+        for (int i = 0; i < reloaded.size(); i++) {
+            assertEquals(reloaded.rule(i).type() == EXACT ? 3 : 0, reloaded.hits(i));
+        }
+    }
+}
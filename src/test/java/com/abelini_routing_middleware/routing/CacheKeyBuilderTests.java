@@ -0,0 +1,55 @@
+package com.abelini_routing_middleware.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CacheKeyBuilderTests {
+    private final CacheKeyBuilder builder = new CacheKeyBuilder(new SimpleMeterRegistry(), new String[]{"utm_*", "gclid"}, "");
+
+    private RoutingRequest canonical(String url, String query) {
+        return builder.canonical(new RoutingRequest(url.substring(url.indexOf('/', 8)), url, query));
+    }
+
+    @Test
+    void sortsParametersAndFilterTokens() {
+        RoutingRequest a = canonical("https://www.example.com/rings", "sort=p.price&filter_param=3.177_1.6&order=ASC");
+        RoutingRequest b = canonical("https://www.example.com/rings", "order=ASC&filter_param=1.6_3.177_1.6&sort=p.price");
+        assertEquals("https://www.example.com/rings?filter_param=1.6_3.177&order=ASC&sort=p.price", a.cacheKey());
+        assertEquals(a.cacheKey(), b.cacheKey());
+        assertNull(a.getPassThroughQuery());
+    }
+
+    @Test
+    void keepsTrackingParametersOutOfTheKeyButPassesThemThrough() {
+        RoutingRequest request = canonical("https://www.example.com/rings", "utm_source=ads&flag&gclid=x1&page=2");
+        assertEquals("https://www.example.com/rings?flag&page=2", request.cacheKey());
+        assertEquals("utm_source=ads&gclid=x1", request.getPassThroughQuery());
+
+        RoutingRequest onlyTracking = canonical("https://www.example.com/rings", "utm_medium=cpc");
+        assertEquals("https://www.example.com/rings", onlyTracking.cacheKey());
+        assertEquals("/internal/category.php?path=1&utm_medium=cpc#top", RoutingResolution.builder()
+                .target("/internal/category.php?path=1#top").withQuery(onlyTracking.getPassThroughQuery()).getTarget());
+    }
+
+    @Test
+    void repeatedParametersKeepTheirOrder() {
+        assertEquals("https://www.example.com/rings?a=2&a=1&b=0",
+                canonical("https://www.example.com/rings", "b=0&a=2&a=1").cacheKey());
+    }
+
+    @Test
+    void normalizesTheOrigin() {
+        RoutingRequest canonical = canonical("https://WWW.Example.com/rings", null);
+        assertEquals("https://www.example.com/rings", canonical.cacheKey());
+        RoutingRequest unchanged = new RoutingRequest("/rings", "https://www.example.com/rings", "a=1");
+        assertSame(unchanged, builder.canonical(unchanged));
+
+        CacheKeyBuilder pinned = new CacheKeyBuilder(new SimpleMeterRegistry(), new String[0], "https://www.example.com/");
+        assertEquals("https://www.example.com/rings?a=1",
+                pinned.canonicalKey("http://example.com:8080/rings?a=1"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.abelini_routing_middleware.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteTableTests {
+
+    private RouteTable routes;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/routes.json")) {
+            routes = RouteTable.compile(new ObjectMapper().readTree(in), value -> value.replace("${", "").replace("}", ""));
+        }
+    }
+
+    @Test
+    void matchesStaticRoutesExactly() {
+        assertEquals("/internal/sitemap/sitemap.php", routes.staticTarget("/sitemap"));
+        assertEquals("/internal/sitemap/sitemap_list.php?category_id=3", routes.staticTarget("/sitemap/wedding-rings"));
+        assertEquals("/internal/product/bespoke.php", routes.staticTarget("/product/bespoke"));
+        assertNull(routes.staticTarget("/sitemap/"));
+        assertNull(routes.staticTarget("//sitemap"));
+        assertNull(routes.staticTarget("/sitemap/rings"));
+        assertNull(routes.staticTarget("/checkout"));
+    }
+
+    @Test
+    void resolvesPrefixRoutesAndPages() {
+        RouteTable.PrefixRoute account = routes.prefix("account");
+        assertTrue(account.strip());
+        assertEquals("order_id", account.children().get("order-info"));
+        assertEquals("search_id", routes.prefix("search").key());
+        assertNull(routes.prefix("engagement-rings"));
+        assertEquals("page.category", routes.page("category_id"));
+        assertEquals("page.default", routes.page("unknown_id"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.abelini_routing_middleware.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UrlTokenizerTests {
+
+    @Test
+    void splitsPathAndStripsStoneSuffixes() {
+        UrlTokenizer.PathTokens tokens = UrlTokenizer.path("/engagement-rings//round-lbg/yellow-gold/");
+        assertEquals(List.of("engagement-rings", "round", "yellow-gold"), tokens.segments());
+        assertEquals("lbg", tokens.stoneType());
+        assertNull(UrlTokenizer.path("/").stoneType());
+        assertEquals(List.of(), UrlTokenizer.path("/").segments());
+    }
+
+    @Test
+    void splitsQueryParametersAtTheFirstEquals() {
+        Map<String, String> params = new LinkedHashMap<>();
+        UrlTokenizer.forEachParam("a=1&&flag&b=x=y&c=", params::put);
+        assertEquals("1", params.get("a"));
+        assertNull(params.get("flag"));
+        assertEquals("x=y", params.get("b"));
+        assertEquals("", params.get("c"));
+        assertEquals(4, params.size());
+
+        List<String> tokens = new ArrayList<>();
+        UrlTokenizer.forEachToken("1.6__3.177_", '_', tokens::add);
+        assertEquals(List.of("1.6", "3.177"), tokens);
+    }
+
+    @Test
+    void mergesValueListsInFirstSeenOrder() {
+        assertEquals("yellow,white,rose", UrlTokenizer.mergeValues("yellow,white", "white,rose,yellow"));
+        assertEquals("msnt,lbg", UrlTokenizer.mergeValues("msnt", "lbg"));
+        assertEquals("a,ab", UrlTokenizer.mergeValues("a", "ab,a"));
+    }
+}
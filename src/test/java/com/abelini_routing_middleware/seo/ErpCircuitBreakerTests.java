@@ -0,0 +1,42 @@
+package com.abelini_routing_middleware.seo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ErpCircuitBreakerTests {
+
+    @Test
+    void opensAfterConsecutiveFailuresOnly() {
+        ErpCircuitBreaker breaker = new ErpCircuitBreaker(new SimpleMeterRegistry(), 3, 60_000);
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void letsOneProbeThroughOnceTheOpenPeriodIsOver() {
+        ErpCircuitBreaker breaker = new ErpCircuitBreaker(new SimpleMeterRegistry(), 1, 0);
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        // a failed probe opens it again, a successful one closes it
+        breaker.onFailure();
+        assertTrue(breaker.isOpen());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+}
@@ -0,0 +1,81 @@
+package com.abelini_routing_middleware.seo;
+
+import com.abelini_routing_middleware.dto.SeoDataResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class SeoDataServiceTests {
+
+    private SeoDataClient seoDataClient;
+    private SeoDataService seoDataService;
+
+    @BeforeEach
+    void setUp() {
+        SeoKeywordIndex seoKeywordIndex = mock(SeoKeywordIndex.class);
+        // null: the index cannot answer, so every token goes to the ERP (an empty list would be an answer)
+        when(seoKeywordIndex.find(any(), anyInt(), anyInt(), any())).thenReturn(null);
+        seoDataClient = mock(SeoDataClient.class);
+        seoDataService = new SeoDataService(seoKeywordIndex, new SeoKeywordCache(1000, 60, 10), seoDataClient, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void fetchesOnlyUncachedTokensAndKeepsPathOrder() {
+        when(seoDataClient.fetchAsync(eq(List.of("engagement-rings", "classic-solitaire")), anyInt(), anyInt(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(row("classic-solitaire", "5"), row("engagement-rings", "1"))));
+        when(seoDataClient.fetchAsync(eq(List.of("yellow-gold")), anyInt(), anyInt(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(row("yellow-gold", "9"))));
+
+        List<SeoDataResponseDTO> first = seoDataService.fetch(List.of("engagement-rings", "classic-solitaire"), 0, 1, "keyword");
+        List<SeoDataResponseDTO> second = seoDataService.fetch(List.of("engagement-rings", "classic-solitaire", "yellow-gold"), 0, 1, "keyword");
+
+        assertEquals(List.of("engagement-rings", "classic-solitaire"), first.stream().map(SeoDataResponseDTO::getKeyword).toList());
+        assertEquals(List.of("engagement-rings", "classic-solitaire", "yellow-gold"), second.stream().map(SeoDataResponseDTO::getKeyword).toList());
+        verify(seoDataClient).fetchAsync(eq(List.of("engagement-rings", "classic-solitaire")), anyInt(), anyInt(), anyString());
+        verify(seoDataClient).fetchAsync(eq(List.of("yellow-gold")), anyInt(), anyInt(), anyString());
+        verifyNoMoreInteractions(seoDataClient);
+    }
+
+    @Test
+    void remembersMissesButNotFailures() {
+        when(seoDataClient.fetchAsync(eq(List.of("wp-admin")), anyInt(), anyInt(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(seoDataClient.fetchAsync(eq(List.of("rings")), anyInt(), anyInt(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new SeoDataUnavailableException("down")));
+
+        assertEquals(List.of(), seoDataService.fetch(List.of("wp-admin"), 0, 1, "keyword"));
+        assertEquals(List.of(), seoDataService.fetch(List.of("wp-admin"), 0, 1, "keyword"));
+        assertThrows(SeoDataUnavailableException.class, () -> seoDataService.fetch(List.of("rings"), 0, 1, "keyword"));
+        assertThrows(SeoDataUnavailableException.class, () -> seoDataService.fetch(List.of("rings"), 0, 1, "keyword"));
+
+        verify(seoDataClient, times(1)).fetchAsync(eq(List.of("wp-admin")), anyInt(), anyInt(), anyString());
+        verify(seoDataClient, times(2)).fetchAsync(eq(List.of("rings")), anyInt(), anyInt(), anyString());
+    }
+
+    @Test
+    void emptyLookupDoesNotCallTheErp() {
+        assertEquals(List.of(), seoDataService.fetch(List.of(), 0, 1, "value"));
+        verify(seoDataClient, never()).fetchAsync(anyList(), anyInt(), anyInt(), anyString());
+    }
+
+    private static SeoDataResponseDTO row(String keyword, String shopifyId) {
+        return new SeoDataResponseDTO(null, "0", "1", "category_id", null, keyword, shopifyId, "0", "1");
+    }
+}